@@ -0,0 +1,390 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.changetracker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.knime.email.TestUtil.CONFIG;
+import static org.knime.email.TestUtil.SETUP;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.eclipse.angus.mail.imap.IMAPFolder;
+import org.eclipse.angus.mail.imap.IMAPStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.collection.ListCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.email.TestUtil;
+import org.knime.email.nodes.changetracker.EmailChangeTrackerNodeProcessor.ChangeSource;
+import org.knime.email.session.EmailIncomingSession;
+import org.knime.email.session.ExpungedMessages;
+import org.knime.testing.core.ExecutionContextExtension;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+
+import jakarta.mail.FetchProfile;
+import jakarta.mail.Flags;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Tests the {@link EmailChangeTrackerNodeProcessor}. GreenMail doesn't support CONDSTORE, so only the failure without
+ * server support is tested against the server, the change tracking itself is tested against a fake folder.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("javadoc")
+@ExtendWith({ExecutionContextExtension.class})
+public class EmailChangeTrackerNodeProcessorTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(SETUP).withConfiguration(CONFIG);
+
+    @Test
+    public void testCheckStateSpec() {
+        assertDoesNotThrow(() -> EmailChangeTrackerNodeProcessor.checkStateSpec(
+            EmailChangeTrackerNodeProcessor.STATE_SPEC));
+        final var intModSeq = new DataTableSpecCreator() //
+            .addColumns(new DataColumnSpecCreator(EmailChangeTrackerNodeProcessor.COL_FOLDER, StringCell.TYPE)
+                .createSpec()) //
+            .addColumns(new DataColumnSpecCreator(EmailChangeTrackerNodeProcessor.COL_UIDVALIDITY, LongCell.TYPE)
+                .createSpec()) //
+            .addColumns(new DataColumnSpecCreator(EmailChangeTrackerNodeProcessor.COL_HIGHESTMODSEQ, IntCell.TYPE)
+                .createSpec()) //
+            .createSpec();
+        assertDoesNotThrow(() -> EmailChangeTrackerNodeProcessor.checkStateSpec(intModSeq),
+            "int is compatible to long");
+        assertThrows(InvalidSettingsException.class, () -> EmailChangeTrackerNodeProcessor.checkStateSpec(
+            EmailChangeTrackerNodeProcessor.CHANGES_SPEC), "not a state table");
+    }
+
+    @Test
+    public void testUnsupportedServer(final ExecutionContext exec) {
+        final var settings = new EmailChangeTrackerNodeSettings();
+        settings.m_folder = TestUtil.FOLDER_INBOX;
+        final var processor = new EmailChangeTrackerNodeProcessor(TestUtil.getSessionKeyUser1(greenMail), settings);
+        final var e = assertThrows(MessagingException.class, () -> processor.trackChanges(exec, null));
+        assertTrue(e.getMessage().contains("CONDSTORE"), e.getMessage());
+    }
+
+    @Test
+    public void testChangedAndExpungedMessages(final ExecutionContext exec) throws Exception {
+        final var folder = new FakeFolder(7, 20, //
+            new FakeMessage(1, "<one@knime.com>", false, new Flags(Flags.Flag.SEEN)), //
+            new FakeMessage(2, "<two@knime.com>", true, new Flags(Flags.Flag.SEEN)), //
+            new FakeMessage(5, "<five@knime.com>", false, flags(Flags.Flag.FLAGGED, "$Important")));
+        final var source = new FakeSource(folder, new ExpungedMessages(TestUtil.FOLDER_INBOX, 7, 25, new long[]{3, 4}),
+            EmailIncomingSession.CAPABILITY_CONDSTORE, EmailIncomingSession.CAPABILITY_QRESYNC);
+        final var processor = createProcessor();
+        processor.trackChanges(exec, createState(exec, 7, 10), source);
+
+        assertArrayEquals(new long[]{7, 10}, source.m_expungedSince, "expunged messages since the previous state");
+        assertEquals(10, folder.m_changedSince, "changed messages since the previous state");
+        assertEquals(List.of( //
+            List.of(TestUtil.FOLDER_INBOX, "1", "<one@knime.com>", EmailChangeTrackerNodeProcessor.CHANGE_CHANGED,
+                "[\\Seen]"), //
+            List.of(TestUtil.FOLDER_INBOX, "5", "<five@knime.com>", EmailChangeTrackerNodeProcessor.CHANGE_CHANGED,
+                "[\\Flagged, $Important]"), //
+            List.of(TestUtil.FOLDER_INBOX, "3", "?", EmailChangeTrackerNodeProcessor.CHANGE_EXPUNGED, "?"), //
+            List.of(TestUtil.FOLDER_INBOX, "4", "?", EmailChangeTrackerNodeProcessor.CHANGE_EXPUNGED, "?")), //
+            toList(processor.getChangesTable()), "changed messages without the expunged one, then expunged messages");
+        assertEquals(List.of(List.of("Archive", "3", "30"), List.of(TestUtil.FOLDER_INBOX, "7", "25")),
+            toList(processor.getStateTable()), "HIGHESTMODSEQ of the resynchronization, other folders kept");
+        assertFalse(processor.getWarning().isPresent(), "no warning");
+    }
+
+    @Test
+    public void testChangedMessagesWithoutQResync(final ExecutionContext exec) throws Exception {
+        final var folder =
+            new FakeFolder(7, 20, new FakeMessage(1, "<one@knime.com>", false, new Flags(Flags.Flag.ANSWERED)));
+        final var source = new FakeSource(folder, null, EmailIncomingSession.CAPABILITY_CONDSTORE);
+        final var processor = createProcessor();
+        processor.trackChanges(exec, createState(exec, 7, 10), source);
+
+        assertEquals(10, folder.m_changedSince, "changed messages since the previous state");
+        assertEquals(List.of(List.of(TestUtil.FOLDER_INBOX, "1", "<one@knime.com>",
+            EmailChangeTrackerNodeProcessor.CHANGE_CHANGED, "[\\Answered]")), toList(processor.getChangesTable()),
+            "changed messages only");
+        assertEquals(List.of(List.of("Archive", "3", "30"), List.of(TestUtil.FOLDER_INBOX, "7", "20")),
+            toList(processor.getStateTable()), "HIGHESTMODSEQ of the folder");
+        assertTrue(processor.getWarning().orElseThrow().contains("QRESYNC"), processor.getWarning().orElseThrow());
+    }
+
+    @Test
+    public void testUIDValidityReset(final ExecutionContext exec) throws Exception {
+        final var folder = new FakeFolder(8, 20, new FakeMessage(1, "<one@knime.com>", false, new Flags()));
+        // the server doesn't report expunged messages if the UIDVALIDITY changed
+        final var source = new FakeSource(folder, new ExpungedMessages(TestUtil.FOLDER_INBOX, 8, 21, new long[0]),
+            EmailIncomingSession.CAPABILITY_CONDSTORE, EmailIncomingSession.CAPABILITY_QRESYNC);
+        final var processor = createProcessor();
+        processor.trackChanges(exec, createState(exec, 7, 10), source);
+
+        assertEquals(-1, folder.m_changedSince, "changes not determined");
+        assertEquals(List.of(), toList(processor.getChangesTable()), "no changes");
+        assertEquals(List.of(List.of("Archive", "3", "30"), List.of(TestUtil.FOLDER_INBOX, "8", "21")),
+            toList(processor.getStateTable()), "new UIDVALIDITY as initial state");
+        assertTrue(processor.getWarning().orElseThrow().contains("UIDVALIDITY"), processor.getWarning().orElseThrow());
+    }
+
+    @Test
+    public void testInitialState(final ExecutionContext exec) throws Exception {
+        final var folder = new FakeFolder(7, 20, new FakeMessage(1, "<one@knime.com>", false, new Flags()));
+        final var source = new FakeSource(folder, null, EmailIncomingSession.CAPABILITY_CONDSTORE,
+            EmailIncomingSession.CAPABILITY_QRESYNC);
+        final var processor = createProcessor();
+        processor.trackChanges(exec, null, source);
+
+        assertNull(source.m_expungedSince, "no resynchronization without previous state");
+        assertEquals(-1, folder.m_changedSince, "changes not determined");
+        assertEquals(List.of(), toList(processor.getChangesTable()), "no changes");
+        assertEquals(List.of(List.of(TestUtil.FOLDER_INBOX, "7", "20")), toList(processor.getStateTable()),
+            "current state as initial state");
+        assertTrue(processor.getWarning().orElseThrow().contains("No previous state"),
+            processor.getWarning().orElseThrow());
+    }
+
+    @Test
+    public void testFolderWithoutModSeq(final ExecutionContext exec) throws Exception {
+        // the server reports no HIGHESTMODSEQ for the folder (NOMODSEQ)
+        final var folder = new FakeFolder(7, -1, new FakeMessage(1, "<one@knime.com>", false, new Flags()));
+        final var source = new FakeSource(folder, null, EmailIncomingSession.CAPABILITY_CONDSTORE);
+        final var processor = createProcessor();
+        final var e = assertThrows(MessagingException.class,
+            () -> processor.trackChanges(exec, createState(exec, 7, 10), source));
+        assertTrue(e.getMessage().contains("NOMODSEQ"), e.getMessage());
+        assertEquals(-1, folder.m_changedSince, "changes not determined");
+
+        final var resyncSource = new FakeSource(folder,
+            new ExpungedMessages(TestUtil.FOLDER_INBOX, 7, -1, new long[0]), EmailIncomingSession.CAPABILITY_CONDSTORE,
+            EmailIncomingSession.CAPABILITY_QRESYNC);
+        assertThrows(MessagingException.class,
+            () -> processor.trackChanges(exec, createState(exec, 7, 10), resyncSource), "also with QRESYNC");
+        assertThrows(MessagingException.class, () -> processor.trackChanges(exec, null, source), "also initially");
+    }
+
+    private static EmailChangeTrackerNodeProcessor createProcessor() {
+        final var settings = new EmailChangeTrackerNodeSettings();
+        settings.m_folder = TestUtil.FOLDER_INBOX;
+        return new EmailChangeTrackerNodeProcessor(null, settings);
+    }
+
+    private static BufferedDataTable createState(final ExecutionContext exec, final long uidValidity,
+        final long modSeq) {
+        final var container = exec.createDataContainer(EmailChangeTrackerNodeProcessor.STATE_SPEC);
+        container.addRowToTable(new DefaultRow("Row0", new StringCell("Archive"), new LongCell(3), new LongCell(30)));
+        container.addRowToTable(new DefaultRow("Row1", new StringCell(TestUtil.FOLDER_INBOX),
+            new LongCell(uidValidity), new LongCell(modSeq)));
+        container.close();
+        return container.getTable();
+    }
+
+    private static Flags flags(final Flags.Flag systemFlag, final String userFlag) {
+        final var flags = new Flags(systemFlag);
+        flags.add(userFlag);
+        return flags;
+    }
+
+    /** @return the rows of the table, the cells as strings, "?" for missing cells */
+    private static List<List<String>> toList(final BufferedDataTable table) {
+        final List<List<String>> rows = new ArrayList<>();
+        try (final var it = table.iterator()) {
+            while (it.hasNext()) {
+                final DataRow row = it.next();
+                final List<String> cells = new ArrayList<>();
+                for (final DataCell cell : row) {
+                    cells.add(toText(cell));
+                }
+                rows.add(cells);
+            }
+        }
+        return rows;
+    }
+
+    private static String toText(final DataCell cell) {
+        if (cell.isMissing()) {
+            return "?";
+        } else if (cell instanceof ListCell list) {
+            final List<String> elements = new ArrayList<>();
+            for (final DataCell element : list) {
+                elements.add(toText(element));
+            }
+            return elements.toString();
+        } else if (cell instanceof LongValue value) {
+            return Long.toString(value.getLongValue());
+        }
+        return ((StringValue)cell).getStringValue();
+    }
+
+    /** The access to a server supporting the given capabilities, with a single folder. */
+    private static final class FakeSource implements ChangeSource {
+
+        private final FakeFolder m_folder;
+
+        private final ExpungedMessages m_expunged;
+
+        private final Set<String> m_capabilities;
+
+        private long[] m_expungedSince;
+
+        FakeSource(final FakeFolder folder, final ExpungedMessages expunged, final String... capabilities) {
+            m_folder = folder;
+            m_expunged = expunged;
+            m_capabilities = Set.of(capabilities);
+        }
+
+        @Override
+        public boolean hasCapability(final String capability) {
+            return m_capabilities.contains(capability);
+        }
+
+        @Override
+        public ExpungedMessages getExpungedMessages(final String folderFullName, final long uidValidity,
+            final long modSeq) {
+            assertEquals(TestUtil.FOLDER_INBOX, folderFullName, "folder");
+            m_expungedSince = new long[]{uidValidity, modSeq};
+            return m_expunged;
+        }
+
+        @Override
+        public IMAPFolder openFolder(final String folderFullName) {
+            assertEquals(TestUtil.FOLDER_INBOX, folderFullName, "folder");
+            return m_folder;
+        }
+    }
+
+    /** An opened folder that isn't connected to a server, returning the given messages as changed. */
+    private static final class FakeFolder extends IMAPFolder {
+
+        private final long m_uidValidity;
+
+        private final long m_highestModSeq;
+
+        private final Message[] m_changed;
+
+        private long m_changedSince = -1;
+
+        FakeFolder(final long uidValidity, final long highestModSeq, final Message... changed) {
+            super(TestUtil.FOLDER_INBOX, '/', new IMAPStore(Session.getInstance(new Properties()), null),
+                Boolean.FALSE);
+            m_uidValidity = uidValidity;
+            m_highestModSeq = highestModSeq;
+            m_changed = changed;
+        }
+
+        @Override
+        public synchronized long getUIDValidity() {
+            return m_uidValidity;
+        }
+
+        @Override
+        public synchronized long getHighestModSeq() {
+            return m_highestModSeq;
+        }
+
+        @Override
+        public synchronized Message[] getChangedSince(final long modseq) {
+            m_changedSince = modseq;
+            return m_changed;
+        }
+
+        @Override
+        public synchronized void fetch(final Message[] msgs, final FetchProfile fp) {
+            // the messages are complete
+        }
+
+        @Override
+        public synchronized long getUID(final Message message) {
+            return ((FakeMessage)message).m_uid;
+        }
+
+        @Override
+        public synchronized void close(final boolean expunge) {
+            // not opened on a server
+        }
+    }
+
+    /** A message with the given UID, Message-ID and flags. */
+    private static final class FakeMessage extends MimeMessage {
+
+        private final long m_uid;
+
+        FakeMessage(final long uid, final String messageId, final boolean expunged, final Flags flags)
+            throws MessagingException {
+            super((Session)null);
+            m_uid = uid;
+            setHeader("Message-ID", messageId);
+            setFlags(flags, true);
+            setExpunged(expunged);
+        }
+    }
+}
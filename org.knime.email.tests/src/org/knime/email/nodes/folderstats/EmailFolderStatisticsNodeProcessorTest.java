@@ -0,0 +1,134 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.folderstats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.knime.email.TestUtil.CONFIG;
+import static org.knime.email.TestUtil.SETUP;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ExecutionContext;
+import org.knime.email.TestUtil;
+import org.knime.testing.core.ExecutionContextExtension;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+
+/**
+ * Tests the {@link EmailFolderStatisticsNodeProcessor}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("javadoc")
+@ExtendWith({ExecutionContextExtension.class})
+public class EmailFolderStatisticsNodeProcessorTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(SETUP).withConfiguration(CONFIG);
+
+    @Test
+    public void testAllFolders(final ExecutionContext exec) throws Exception {
+        final var mailSessionKey = TestUtil.getSessionKeyUser1(greenMail);
+        final String subFolder = TestUtil.createSubFolder(mailSessionKey, TestUtil.FOLDER_INBOX, "statsFolder");
+        TestUtil.setupTestMails(greenMail.getSmtp().getServerSetup());
+        final int nrMessages = TestUtil.getAllGreenMailMessages(greenMail, false, TestUtil.FOLDER_INBOX).size();
+
+        final var settings = new EmailFolderStatisticsNodeSettings();
+        final List<DataRow> rows = getRows(
+            new EmailFolderStatisticsNodeProcessor(mailSessionKey, settings).getFolderStatistics(exec));
+        assertEquals(2, rows.size(), "one row per folder");
+
+        final DataRow inbox = findRow(rows, TestUtil.FOLDER_INBOX);
+        assertEquals(nrMessages, getLong(inbox, 1), "messages");
+        assertEquals(nrMessages, getLong(inbox, 2), "unseen");
+        assertTrue(getLong(inbox, 4) > nrMessages, "UIDNEXT");
+        assertTrue(getLong(inbox, 5) > 0, "UIDVALIDITY");
+
+        final DataRow sub = findRow(rows, subFolder);
+        assertEquals(0, getLong(sub, 1), "messages in sub folder");
+    }
+
+    @Test
+    public void testSingleFolder(final ExecutionContext exec) throws Exception {
+        TestUtil.setupTestMails(greenMail.getSmtp().getServerSetup());
+        final var settings = new EmailFolderStatisticsNodeSettings();
+        settings.m_allFolders = false;
+        settings.m_folder = TestUtil.FOLDER_INBOX;
+        final List<DataRow> rows = getRows(new EmailFolderStatisticsNodeProcessor(
+            TestUtil.getSessionKeyUser1(greenMail), settings).getFolderStatistics(exec));
+        assertEquals(1, rows.size(), "one row for the selected folder");
+        assertEquals(EmailFolderStatisticsNodeProcessor.SPEC.getNumColumns(), rows.get(0).getNumCells());
+    }
+
+    private static List<DataRow> getRows(final BufferedDataTable table) {
+        final List<DataRow> rows = new ArrayList<>();
+        try (final var it = table.iterator()) {
+            it.forEachRemaining(rows::add);
+        }
+        return rows;
+    }
+
+    private static DataRow findRow(final List<DataRow> rows, final String folder) {
+        return rows.stream().filter(r -> ((StringValue)r.getCell(0)).getStringValue().equals(folder)).findFirst()
+            .orElseThrow();
+    }
+
+    private static long getLong(final DataRow row, final int index) {
+        return ((LongValue)row.getCell(index)).getLongValue();
+    }
+}
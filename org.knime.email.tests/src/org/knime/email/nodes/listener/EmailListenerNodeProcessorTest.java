@@ -0,0 +1,138 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.listener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.knime.email.TestUtil.CONFIG;
+import static org.knime.email.TestUtil.SETUP;
+import static org.knime.email.TestUtil.USER1;
+import static org.knime.email.TestUtil.USER2;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.knime.core.node.ExecutionContext;
+import org.knime.email.TestUtil;
+import org.knime.testing.core.ExecutionContextExtension;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+
+/**
+ * Tests the {@link EmailListenerNodeProcessor}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("javadoc")
+@ExtendWith({ExecutionContextExtension.class})
+public class EmailListenerNodeProcessorTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(SETUP).withConfiguration(CONFIG);
+
+    private static EmailListenerNodeSettings createSettings(final int maxWaitSeconds) {
+        final var settings = new EmailListenerNodeSettings();
+        settings.m_folder = TestUtil.FOLDER_INBOX;
+        settings.m_maxWaitSeconds = maxWaitSeconds;
+        settings.m_pollIntervalSeconds = 1;
+        return settings;
+    }
+
+    @Test
+    public void testNewMessage(final ExecutionContext exec) throws Exception {
+        TestUtil.setupTestMails(greenMail.getSmtp().getServerSetup());
+        final var processor =
+            new EmailListenerNodeProcessor(TestUtil.getSessionKeyUser1(greenMail), createSettings(60));
+        final long start = System.currentTimeMillis();
+        final var listening = CompletableFuture.runAsync(() -> {
+            try {
+                processor.listenAndFillTables(exec);
+            } catch (Exception e) { // NOSONAR
+                throw new IllegalStateException(e);
+            }
+        });
+        // emails sent before the listener determined the UIDs of the existing messages aren't new, hence send emails
+        // until the listener receives one
+        var nrSent = 0;
+        while (!listening.isDone() && System.currentTimeMillis() - start < 30_000) {
+            nrSent++;
+            GreenMailUtil.sendTextEmail(USER1, USER2, "new subject", "new body",
+                greenMail.getSmtp().getServerSetup());
+            try {
+                listening.get(500, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) { // NOSONAR not received yet, send another email
+            }
+        }
+        listening.get(30, TimeUnit.SECONDS);
+        assertTrue(System.currentTimeMillis() - start < 30_000, "finished before maximum waiting time");
+        final long nrRead = processor.getMsgTable().size();
+        assertTrue(nrRead >= 1 && nrRead <= nrSent, "only new messages are read: " + nrRead + " of " + nrSent);
+        try (final var it = processor.getMsgTable().iterator()) {
+            final int subjectIdx = processor.getMsgTable().getDataTableSpec().findColumnIndex("Subject");
+            while (it.hasNext()) {
+                assertEquals("new subject", it.next().getCell(subjectIdx).toString(), "subject of a new message");
+            }
+        }
+        assertTrue(processor.getHeaderTable().size() > 0, "headers of the new message");
+    }
+
+    @Test
+    public void testTimeout(final ExecutionContext exec) throws Exception {
+        TestUtil.setupTestMails(greenMail.getSmtp().getServerSetup());
+        final var processor =
+            new EmailListenerNodeProcessor(TestUtil.getSessionKeyUser1(greenMail), createSettings(1));
+        processor.listenAndFillTables(exec);
+        assertEquals(0, processor.getMsgTable().size(), "existing messages aren't new");
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.knime.email.TestUtil.CONFIG;
+import static org.knime.email.TestUtil.SETUP;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.StringValue;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.NodeSettings;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortObjectInput;
+import org.knime.core.node.streamable.PortOutput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.webui.node.dialog.defaultdialog.NodeParametersUtil;
+import org.knime.email.TestUtil;
+import org.knime.email.port.EmailSessionPortObject;
+import org.knime.email.session.EmailSessionCache;
+import org.knime.testing.core.ExecutionContextExtension;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetup;
+
+/**
+ * Tests the streamable operator of the {@link EmailReaderNodeModel}, i.e. that the message, attachment and header rows
+ * end up in the right output for every combination of the optional outputs and that all outputs get closed.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings({"javadoc", "restriction"})
+@ExtendWith({ExecutionContextExtension.class})
+public class EmailReaderNodeModelTest {
+
+    private static final String FILE_NAME = "data.csv";
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(SETUP).withConfiguration(CONFIG);
+
+    /** Records the pushed rows and whether the output got closed. */
+    private static final class RecordingRowOutput extends RowOutput {
+
+        private final List<DataRow> m_rows = new ArrayList<>();
+
+        private boolean m_closed;
+
+        @Override
+        public void push(final DataRow row) throws InterruptedException {
+            assertFalse(m_closed, "Row pushed to a closed output");
+            m_rows.add(row);
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            m_closed = true;
+        }
+    }
+
+    @Test
+    public void testStreamingMessagesOnly(final ExecutionContext exec) throws Exception {
+        testStreaming(exec, false, false);
+    }
+
+    @Test
+    public void testStreamingWithAttachments(final ExecutionContext exec) throws Exception {
+        testStreaming(exec, true, false);
+    }
+
+    @Test
+    public void testStreamingWithHeaders(final ExecutionContext exec) throws Exception {
+        testStreaming(exec, false, true);
+    }
+
+    @Test
+    public void testStreamingWithAttachmentsAndHeaders(final ExecutionContext exec) throws Exception {
+        testStreaming(exec, true, true);
+    }
+
+    private static void testStreaming(final ExecutionContext exec, final boolean outputAttachments,
+        final boolean outputHeaders) throws Exception {
+        final ServerSetup serverSetup = greenMail.getSmtp().getServerSetup();
+        GreenMailUtil.sendAttachmentEmail(TestUtil.USER1, TestUtil.USER2, "With attachment", "Some body",
+            "a,b;1,2".getBytes(StandardCharsets.UTF_8), "text/csv", FILE_NAME, "Some data", serverSetup);
+        GreenMailUtil.sendTextEmail(TestUtil.USER1, TestUtil.USER2, "Without attachment", "Other body", serverSetup);
+
+        final var settings = GetEmailNodeProcessorTest.createSettings(TestUtil.FOLDER_INBOX);
+        settings.m_outputAttachments = outputAttachments;
+        settings.m_outputHeaders = outputHeaders;
+        final var model = createModel(settings);
+
+        final var msgOutput = new RecordingRowOutput();
+        final var attachOutput = outputAttachments ? new RecordingRowOutput() : null;
+        final var headerOutput = outputHeaders ? new RecordingRowOutput() : null;
+        final List<PortOutput> outputs = new ArrayList<>();
+        outputs.add(msgOutput);
+        if (attachOutput != null) {
+            outputs.add(attachOutput);
+        }
+        if (headerOutput != null) {
+            outputs.add(headerOutput);
+        }
+
+        final var cacheId = EmailSessionCache.store(TestUtil.getSessionKeyUser1(greenMail));
+        try {
+            model.createStreamableOperator(null, new PortObjectSpec[]{null}).runFinal(
+                new PortInput[]{new PortObjectInput(new EmailSessionPortObject(cacheId))},
+                outputs.toArray(PortOutput[]::new), exec);
+        } finally {
+            EmailSessionCache.delete(cacheId);
+        }
+
+        assertTrue(msgOutput.m_closed, "Message output not closed");
+        assertEquals(2, msgOutput.m_rows.size());
+        final var msgColumns = EmailReaderNodeProcessor.getMsgSpec(false).getNumColumns();
+        msgOutput.m_rows.forEach(row -> assertEquals(msgColumns, row.getNumCells()));
+        if (attachOutput != null) {
+            assertTrue(attachOutput.m_closed, "Attachment output not closed");
+            assertEquals(1, attachOutput.m_rows.size());
+            assertEquals(FILE_NAME, getName(attachOutput.m_rows.get(0)));
+        }
+        if (headerOutput != null) {
+            assertTrue(headerOutput.m_closed, "Header output not closed");
+            assertFalse(headerOutput.m_rows.isEmpty());
+            assertTrue(headerOutput.m_rows.stream().anyMatch(row -> "Subject".equalsIgnoreCase(getName(row))),
+                "No subject header in the header output");
+            headerOutput.m_rows.forEach(row -> assertFalse(FILE_NAME.equals(getName(row))));
+        }
+    }
+
+    /** The second column holds the file name in the attachment table and the header name in the header table. */
+    private static String getName(final DataRow row) {
+        return ((StringValue)row.getCell(1)).getStringValue();
+    }
+
+    private static EmailReaderNodeModel createModel(final EmailReaderNodeSettings settings) throws Exception {
+        final var creationConfig = new EmailReaderNodeFactory().createNodeCreationConfig();
+        final var model = new EmailReaderNodeModel(null, EmailReaderNodeSettings.class,
+            creationConfig.getPortConfig().orElseThrow());
+        final var nodeSettings = new NodeSettings("model");
+        NodeParametersUtil.saveSettings(EmailReaderNodeSettings.class, settings, nodeSettings);
+        model.loadValidatedSettingsFrom(nodeSettings);
+        return model;
+    }
+}
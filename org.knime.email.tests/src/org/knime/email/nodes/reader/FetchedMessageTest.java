@@ -0,0 +1,126 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.Semaphore;
+
+import org.junit.jupiter.api.Test;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Tests the {@link FetchedMessage}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("javadoc")
+class FetchedMessageTest {
+
+    private static MimeMessage createMessage(final String text) throws Exception {
+        final var message = new MimeMessage((Session)null);
+        message.setSubject("subject");
+        message.setText(text);
+        message.saveChanges();
+        return message;
+    }
+
+    /** Parses the written message, announcing the given size (like the RFC822.SIZE of an IMAP message). */
+    private static MimeMessage withSize(final ByteArrayOutputStream out, final int size) throws Exception {
+        return new MimeMessage((Session)null, new ByteArrayInputStream(out.toByteArray())) {
+            @Override
+            public int getSize() {
+                return size;
+            }
+        };
+    }
+
+    @Test
+    void smallMessageBufferedWithinBudget() throws Exception {
+        final var out = new ByteArrayOutputStream();
+        createMessage("body").writeTo(out);
+        final var message = withSize(out, out.size());
+        final var budget = new Semaphore(FetchedMessage.MAX_IN_MEMORY_SIZE);
+        try (final var fetched = FetchedMessage.fetch(message, budget)) {
+            assertEquals(FetchedMessage.MAX_IN_MEMORY_SIZE - message.getSize(), budget.availablePermits(),
+                "buffered bytes taken from the budget");
+            assertEquals("body", fetched.getMessage().getContent(), "content of the fetched message");
+            fetched.close();
+            fetched.close();
+        }
+        assertEquals(FetchedMessage.MAX_IN_MEMORY_SIZE, budget.availablePermits(), "budget released once");
+    }
+
+    @Test
+    void messageOfUnknownSizeSpilled() throws Exception {
+        final var message = createMessage("x".repeat(1000));
+        final var budget = new Semaphore(FetchedMessage.MAX_IN_MEMORY_SIZE);
+        try (final var fetched = FetchedMessage.fetch(message, budget)) {
+            assertEquals(FetchedMessage.MAX_IN_MEMORY_SIZE, budget.availablePermits(), "not buffered in memory");
+            assertEquals("x".repeat(1000), fetched.getMessage().getContent(), "content of the fetched message");
+        }
+    }
+
+    @Test
+    void messageLargerThanAnnouncedSpilled() throws Exception {
+        final var text = "x".repeat(1000);
+        final var out = new ByteArrayOutputStream();
+        createMessage(text).writeTo(out);
+        final var message = withSize(out, 100);
+        final var budget = new Semaphore(FetchedMessage.MAX_IN_MEMORY_SIZE);
+        try (final var fetched = FetchedMessage.fetch(message, budget)) {
+            assertEquals(FetchedMessage.MAX_IN_MEMORY_SIZE, budget.availablePermits(), "not buffered in memory");
+            assertEquals(text, fetched.getMessage().getContent(), "content of the fetched message");
+        }
+    }
+}
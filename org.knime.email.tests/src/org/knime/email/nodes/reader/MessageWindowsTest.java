@@ -0,0 +1,125 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.reader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.knime.email.TestUtil.CONFIG;
+import static org.knime.email.TestUtil.SETUP;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.knime.email.TestUtil;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+
+import jakarta.mail.FetchProfile;
+import jakarta.mail.Folder;
+import jakarta.mail.Message;
+import jakarta.mail.UIDFolder;
+
+/**
+ * Tests the {@link MessageWindows}: at most one window of messages is retrieved (and not released) at a time.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("javadoc")
+class MessageWindowsTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(SETUP).withConfiguration(CONFIG);
+
+    @Test
+    void windowsReleasedOneByOne() throws Exception {
+        final int nrMessages = 5;
+        for (int i = 0; i < nrMessages; i++) {
+            GreenMailUtil.sendTextEmail(TestUtil.USER1, TestUtil.USER2, "subject" + i, "body" + i,
+                greenMail.getSmtp().getServerSetup());
+        }
+        final var store = TestUtil.getStoreUser1(greenMail);
+        try (final var folder = store.getFolder(TestUtil.FOLDER_INBOX)) {
+            folder.open(Folder.READ_ONLY);
+            final var uidFolder = (UIDFolder)folder;
+            final long[] uids = new long[nrMessages];
+            for (int i = 0; i < nrMessages; i++) {
+                uids[i] = uidFolder.getUID(folder.getMessage(i + 1));
+            }
+            final var fetchProfile = new FetchProfile();
+            fetchProfile.add(FetchProfile.Item.ENVELOPE);
+            final List<Long> released = new ArrayList<>();
+            final var windows = new MessageWindows(folder, uids, 2, fetchProfile, message -> {
+                try {
+                    released.add(uidFolder.getUID(message));
+                } catch (Exception e) { // NOSONAR
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            final List<Long> retrieved = new ArrayList<>();
+            for (Message[] window; (window = windows.next()) != null;) {
+                // all messages of the previous windows are released before the next window is retrieved
+                assertEquals(retrieved, released, "previous windows released");
+                assertEquals(Math.min(2, nrMessages - retrieved.size()), window.length, "window size");
+                for (final Message message : window) {
+                    retrieved.add(windows.getUID(message));
+                }
+            }
+            assertArrayEquals(uids, retrieved.stream().mapToLong(Long::longValue).toArray(), "all messages in order");
+            assertEquals(retrieved, released, "last window released");
+            assertNull(windows.next(), "no more windows");
+        } finally {
+            store.close();
+        }
+    }
+}
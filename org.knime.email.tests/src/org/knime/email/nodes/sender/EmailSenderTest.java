@@ -0,0 +1,175 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sender;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.knime.email.TestUtil.CONFIG;
+import static org.knime.email.TestUtil.SETUP;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.email.TestUtil;
+import org.knime.email.nodes.sender.MessageSettings.EMailFormat;
+import org.knime.email.session.EmailSessionKey;
+import org.knime.email.session.EmailSessionKey.SmtpConnectionSecurity;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+
+import jakarta.mail.Address;
+import jakarta.mail.BodyPart;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Tests splitting of recipients into envelopes ({@link EmailSender#chunkRecipients(Address[], int)}) and sending
+ * messages in one or several envelopes.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("java:S5960")
+class EmailSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(SETUP).withConfiguration(CONFIG);
+
+    private static final String ATTACHMENT_CONTENT = "a,b;1,2";
+
+    @SuppressWarnings("static-method")
+    @Test
+    final void testChunkRecipients() throws AddressException {
+        final Address[] recipients = InternetAddress.parse("a@foo.com, b@foo.com, c@foo.com, d@foo.com, e@foo.com");
+        assertEquals(1, EmailSender.chunkRecipients(recipients, 0).size(), "unlimited");
+        assertEquals(1, EmailSender.chunkRecipients(recipients, 5).size(), "limit not exceeded");
+        final List<Address[]> chunks = EmailSender.chunkRecipients(recipients, 2);
+        assertEquals(3, chunks.size(), "number of chunks");
+        assertArrayEquals(new Address[]{recipients[0], recipients[1]}, chunks.get(0), "first chunk");
+        assertArrayEquals(new Address[]{recipients[4]}, chunks.get(2), "last chunk");
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    final void testSendSingleEnvelope() throws Exception {
+        final var settings = createSettings(0);
+        final List<DeliveryResult> results = send(settings);
+        assertEquals(1, results.size(), "one envelope");
+        final MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length, "one message per recipient");
+        for (final MimeMessage message : received) {
+            checkContent(message);
+        }
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    final void testSendMultipleEnvelopes() throws Exception {
+        final var settings = createSettings(1);
+        final List<DeliveryResult> results = send(settings);
+        assertEquals(3, results.size(), "one envelope per recipient");
+        final MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length, "one message per recipient");
+        for (final MimeMessage message : received) {
+            checkContent(message);
+        }
+    }
+
+    private static EmailSenderNodeSettings createSettings(final int maxRecipientsPerMessage) {
+        final var settings = new EmailSenderNodeSettings();
+        settings.m_recipientsSettings.m_to = TestUtil.USER2;
+        settings.m_recipientsSettings.m_cc = TestUtil.USER3;
+        settings.m_recipientsSettings.m_bcc = TestUtil.USER1;
+        settings.m_messageSettings.m_subject = "Some subject";
+        settings.m_messageSettings.m_message = "Some body";
+        settings.m_messageSettings.m_format = EMailFormat.TEXT;
+        settings.m_deliverySettings.m_maxRecipientsPerMessage = maxRecipientsPerMessage;
+        return settings;
+    }
+
+    private static List<DeliveryResult> send(final EmailSenderNodeSettings settings) throws Exception {
+        final var serverSetup = greenMail.getSmtp().getServerSetup();
+        final EmailSessionKey sessionKey = EmailSessionKey.builder() //
+            .withSmtp(b -> b //
+                .smtpHost(serverSetup.getBindAddress(), serverSetup.getPort()) //
+                .smtpEmailAddress(TestUtil.USER1) //
+                .security(SmtpConnectionSecurity.NONE)) //
+            .withAuth(TestUtil.USER1, TestUtil.PWD1) //
+            .withProperties(new Properties()).build();
+        final var sender = new EmailSender(sessionKey, settings);
+        sender.setAttachmentsFromInputColumn(
+            List.of(InputAttachment.fromCell(new StringCell(ATTACHMENT_CONTENT), "data.csv", 0)));
+        return sender.send(null, new ExecutionMonitor());
+    }
+
+    /** Checks that the message has the body and the attachment. */
+    private static void checkContent(final MimeMessage message) throws Exception {
+        assertEquals("Some subject", message.getSubject(), "subject");
+        final Multipart multipart = assertInstanceOf(Multipart.class, message.getContent(), "body and attachment");
+        assertEquals(2, multipart.getCount(), "body and attachment");
+        final BodyPart body = multipart.getBodyPart(0);
+        assertTrue(body.isMimeType("text/plain"), body.getContentType());
+        assertTrue(body.getContent().toString().contains("Some body"), body.getContent().toString());
+        final BodyPart attachment = multipart.getBodyPart(1);
+        assertEquals(Part.ATTACHMENT, attachment.getDisposition(), "disposition");
+        assertEquals("data.csv", attachment.getFileName(), "file name");
+        try (final var in = attachment.getInputStream()) {
+            assertEquals(ATTACHMENT_CONTENT, new String(in.readAllBytes(), StandardCharsets.UTF_8), "attachment");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sender;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests caching, eviction and spilling of the {@link EncodedPartCache}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("java:S5960")
+class EncodedPartCacheTest {
+
+    private EncodedPartCache m_cache;
+
+    @BeforeEach
+    void createCache() {
+        // 100 bytes capacity, entries larger than 10 bytes are spilled to disk
+        m_cache = new EncodedPartCache(100, 10);
+    }
+
+    @AfterEach
+    void disposeCache() {
+        m_cache.dispose();
+    }
+
+    private static EncodedPartCache.Encoder bytes(final int length, final byte value) {
+        return out -> {
+            final byte[] b = new byte[length];
+            Arrays.fill(b, value);
+            out.write(b);
+        };
+    }
+
+    private static byte[] read(final EncodedPartCache.Lease lease) throws IOException {
+        try (InputStream in = lease.openStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void testEncodesOnlyOnce() throws IOException {
+        final int[] encodeCount = new int[1];
+        final EncodedPartCache.Encoder encoder = out -> {
+            encodeCount[0] += 1;
+            out.write(new byte[]{1, 2, 3});
+        };
+        try (var lease1 = m_cache.getOrEncode("a", encoder); var lease2 = m_cache.getOrEncode("a", encoder)) {
+            assertEquals(1, encodeCount[0], "number of encoder calls");
+            assertArrayEquals(new byte[]{1, 2, 3}, read(lease1));
+            assertArrayEquals(new byte[]{1, 2, 3}, read(lease2));
+        }
+        assertEquals(1, m_cache.getHitCount(), "hit count");
+        assertEquals(1, m_cache.getMissCount(), "miss count");
+        assertEquals(3, m_cache.getSize(), "cache size");
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() throws IOException {
+        m_cache.getOrEncode("a", bytes(40, (byte)'a')).close();
+        m_cache.getOrEncode("b", bytes(40, (byte)'b')).close();
+        m_cache.getOrEncode("a", bytes(40, (byte)'a')).close(); // 'a' is now most recently used
+        m_cache.getOrEncode("c", bytes(40, (byte)'c')).close();
+        assertTrue(m_cache.contains("a"), "recently used entry retained");
+        assertFalse(m_cache.contains("b"), "least recently used entry evicted");
+        assertTrue(m_cache.contains("c"), "new entry cached");
+        assertEquals(80, m_cache.getSize(), "cache size");
+    }
+
+    @Test
+    void testEvictedSpilledContentReadableWhileLeased() throws IOException {
+        try (var lease = m_cache.getOrEncode("a", bytes(60, (byte)'a'))) {
+            m_cache.getOrEncode("b", bytes(60, (byte)'b')).close(); // evicts 'a'
+            assertFalse(m_cache.contains("a"), "entry evicted");
+            final byte[] expected = new byte[60];
+            Arrays.fill(expected, (byte)'a');
+            assertArrayEquals(expected, read(lease), "content of leased entry");
+        }
+    }
+
+    @Test
+    void testTooLargeNotCached() throws IOException {
+        try (var lease = m_cache.getOrEncode("a", bytes(200, (byte)'a'))) {
+            assertEquals(200, lease.size(), "size of encoded content");
+            assertEquals(200, read(lease).length, "length of encoded content");
+        }
+        assertFalse(m_cache.contains("a"), "too large entry not cached");
+        assertEquals(0, m_cache.getSize(), "cache size");
+    }
+
+    @Test
+    void testFailedEncodingNotCached() {
+        assertThrows(IOException.class, () -> m_cache.getOrEncode("a", out -> {
+            out.write(new byte[20]);
+            throw new IOException("failure");
+        }));
+        assertFalse(m_cache.contains("a"), "failed entry not cached");
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sender;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.knime.core.node.InvalidSettingsException;
+
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+
+/**
+ * Tests matching of the recipient allow-list ({@link RecipientDomainPolicy}).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("java:S5960")
+class RecipientDomainPolicyTest {
+
+    @SuppressWarnings("static-method")
+    @Test
+    final void testAllowAll() {
+        assertTrue(RecipientDomainPolicy.compile(null).isAllowed("a@foo.com"), "property not set");
+        assertTrue(RecipientDomainPolicy.compile(" ").isAllowed("a@foo.com"), "property blank");
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    final void testDomainMatchesOnLabelBoundary() {
+        final var policy = RecipientDomainPolicy.compile("foo.com, Bar.ORG");
+        assertTrue(policy.isAllowed("a@foo.com"), "domain");
+        assertTrue(policy.isAllowed("A@FOO.COM"), "domain, case insensitive");
+        assertTrue(policy.isAllowed("b@mail.foo.com"), "subdomain");
+        assertTrue(policy.isAllowed("c@bar.org"), "second (trimmed) entry");
+        assertFalse(policy.isAllowed("d@barfoo.com"), "not on label boundary");
+        assertFalse(policy.isAllowed("e@foo.com.evil.net"), "domain as prefix");
+        assertFalse(policy.isAllowed("foo.com"), "no address");
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    final void testExactDomainSubdomainAndAddressEntries() {
+        final var policy = RecipientDomainPolicy.compile("@foo.com,.bar.org,jane.doe@baz.net");
+        assertTrue(policy.isAllowed("a@foo.com"), "exact domain");
+        assertFalse(policy.isAllowed("a@mail.foo.com"), "subdomain of exact domain");
+        assertTrue(policy.isAllowed("b@mail.bar.org"), "subdomain");
+        assertFalse(policy.isAllowed("b@bar.org"), "domain of subdomain-only entry");
+        assertTrue(policy.isAllowed("Jane.Doe@baz.net"), "address");
+        assertFalse(policy.isAllowed("john.doe@baz.net"), "other address in domain");
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    final void testValidateReportsAllRejected() throws AddressException {
+        final var policy = RecipientDomainPolicy.compile("foo.com");
+        assertDoesNotThrow(() -> policy.validate(Arrays.asList(InternetAddress.parse("a@foo.com, b@x.foo.com"))));
+        final var addresses = Arrays.asList(InternetAddress.parse("a@foo.com, b@bar.org, c@baz.net"));
+        final var ex = assertThrows(InvalidSettingsException.class, () -> policy.validate(addresses));
+        assertTrue(ex.getMessage().contains("'b@bar.org'") && ex.getMessage().contains("'c@baz.net'"),
+            "all rejected recipients reported: " + ex.getMessage());
+        assertFalse(ex.getMessage().contains("'a@foo.com'"), "allowed recipient not reported: " + ex.getMessage());
+    }
+
+    @SuppressWarnings("static-method")
+    @Test
+    final void testValidateRejectsAddressWithoutAddress() throws AddressException, UnsupportedEncodingException {
+        final var policy = RecipientDomainPolicy.compile("foo.com");
+        final var noAddress = new InternetAddress();
+        noAddress.setPersonal("Jane Doe");
+        final var addresses = Arrays.asList(new InternetAddress("a@foo.com"), noAddress,
+            new InternetAddress("b@bar.org"));
+        final var ex = assertThrows(InvalidSettingsException.class, () -> policy.validate(addresses));
+        assertTrue(ex.getMessage().startsWith("2 recipients") && ex.getMessage().contains("Jane Doe"),
+            "address without address part rejected: " + ex.getMessage());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sizeanalytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.knime.email.TestUtil.CONFIG;
+import static org.knime.email.TestUtil.SETUP;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.LongValue;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ExecutionContext;
+import org.knime.email.TestUtil;
+import org.knime.testing.core.ExecutionContextExtension;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+
+/**
+ * Tests the {@link EmailSizeAnalyticsNodeProcessor}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("javadoc")
+@ExtendWith({ExecutionContextExtension.class})
+public class EmailSizeAnalyticsNodeProcessorTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(SETUP).withConfiguration(CONFIG);
+
+    @Test
+    public void testAggregates(final ExecutionContext exec) throws Exception {
+        TestUtil.setupTestMails(greenMail.getSmtp().getServerSetup());
+        final long nrMessages = TestUtil.getAllGreenMailMessages(greenMail, false, TestUtil.FOLDER_INBOX).size();
+
+        final var processor = new EmailSizeAnalyticsNodeProcessor(TestUtil.getSessionKeyUser1(greenMail),
+            new EmailSizeAnalyticsNodeSettings());
+        processor.analyze(exec);
+
+        final List<DataRow> folderRows = getRows(processor.getFolderTable());
+        assertEquals(1, folderRows.size(), "only INBOX");
+        assertEquals(nrMessages, getLong(folderRows.get(0), 1), "messages in folder");
+        final long totalSize = getLong(folderRows.get(0), 2);
+        assertTrue(totalSize > 0, "size of folder");
+
+        for (final BufferedDataTable table : List.of(processor.getSenderTable(), processor.getMonthTable())) {
+            long messages = 0;
+            long size = 0;
+            for (final DataRow row : getRows(table)) {
+                messages += getLong(row, 1);
+                size += getLong(row, 2);
+            }
+            assertEquals(nrMessages, messages, "all messages aggregated");
+            assertEquals(totalSize, size, "all sizes aggregated");
+        }
+    }
+
+    private static List<DataRow> getRows(final BufferedDataTable table) {
+        final List<DataRow> rows = new ArrayList<>();
+        try (final var it = table.iterator()) {
+            it.forEachRemaining(rows::add);
+        }
+        return rows;
+    }
+
+    private static long getLong(final DataRow row, final int index) {
+        return ((LongValue)row.getCell(index)).getLongValue();
+    }
+}
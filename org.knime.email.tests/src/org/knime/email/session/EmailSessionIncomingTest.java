@@ -60,6 +60,7 @@
 import java.util.List;
 import java.util.Properties;
 
+import org.eclipse.angus.mail.imap.protocol.IMAPResponse;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
@@ -139,6 +140,28 @@ void listFolders() throws MessagingException {
         }
     }
 
+    @SuppressWarnings("static-method")
+    @Test
+    void listFoldersCached() throws Exception {
+        final var mailSessionKey = TestUtil.getSessionKeyUser1(greenMail);
+        try {
+            assertIterableEquals(List.of(INBOX), mailSessionKey.listFolders().get(), "initial folder list");
+
+            TestUtil.createFolder(TestUtil.getStoreUser1(greenMail), "CachedFolderTest");
+            assertIterableEquals(List.of(INBOX), mailSessionKey.listFolders().get(), "cached folder list reused");
+
+            final var newSessionKey = TestUtil.getSessionKeyUser1(greenMail);
+            try {
+                assertIterableEquals(List.of("CachedFolderTest", INBOX), newSessionKey.listFolders().get(),
+                    "(sorted) folder list of a new session");
+            } finally {
+                newSessionKey.closeParkedConnections();
+            }
+        } finally {
+            mailSessionKey.closeParkedConnections();
+        }
+    }
+
     @SuppressWarnings({"static-method","resource"})
     @Test
     void openFolder() throws MessagingException {
@@ -197,4 +220,17 @@ void testClose() throws MessagingException {
         session.close();
         assertThrows(IllegalStateException.class, () -> session.openFolder(INBOX), "can not open folder after close");
     }
+
+    @SuppressWarnings("static-method")
+    @Test
+    void vanishedUIDs() throws Exception {
+        final List<IMAPResponse> responses = List.of( //
+            new IMAPResponse("* OK [UIDVALIDITY 3857529045] UIDs valid"), //
+            new IMAPResponse("* VANISHED (EARLIER) 41,43:45,100"), //
+            new IMAPResponse("* 12 EXISTS"), //
+            new IMAPResponse("* VANISHED (EARLIER) 7"));
+        assertArrayEquals(new long[]{41, 43, 44, 45, 100, 7}, EmailIncomingSession.getVanishedUIDs(responses),
+            "UIDs of all VANISHED responses");
+        assertArrayEquals(new long[0], EmailIncomingSession.getVanishedUIDs(List.of()), "no VANISHED response");
+    }
 }
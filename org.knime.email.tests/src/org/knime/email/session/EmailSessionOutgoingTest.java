@@ -44,6 +44,7 @@
  */
 package org.knime.email.session;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.knime.email.TestUtil.CONFIG;
@@ -118,4 +119,18 @@ void testClose() throws MessagingException {
         assertFalse(mailSession.getEmailTransport().isConnected(), "Transport is connected after closing");
         Assertions.assertDoesNotThrow(mailSession::close, "close cann be called multiple times");
     }
+
+    @SuppressWarnings("static-method")
+    @Test
+    void allowUtf8DecidedPerConnection() throws MessagingException {
+        final var mailSessionKey = getSmtpSessionKey(TestUtil.USER1, TestUtil.PWD1);
+        for (int i = 0; i < 2; i++) {
+            try (final var mailSession = mailSessionKey.connectOutgoing()) {
+                final boolean smtpUtf8 = mailSession.supportsExtension(EmailOutgoingSession.EXTENSION_SMTPUTF8);
+                assertEquals(Boolean.toString(smtpUtf8),
+                    mailSession.getSession().getProperty(EmailSessionKey.PROPERTY_ALLOW_UTF8),
+                    "UTF-8 headers only if the server supports SMTPUTF8");
+            }
+        }
+    }
 }
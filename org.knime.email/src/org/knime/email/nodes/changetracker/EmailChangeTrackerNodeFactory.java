@@ -0,0 +1,105 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.changetracker;
+
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.webui.node.impl.WebUINodeConfiguration;
+import org.knime.core.webui.node.impl.WebUINodeFactory;
+import org.knime.email.port.EmailSessionPortObject;
+
+/**
+ * {@link NodeFactory} for the Email Change Tracker node, which outputs the emails whose flags changed or that were
+ * expunged since a previous run.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("restriction") // New Node UI is not yet API
+public final class EmailChangeTrackerNodeFactory extends WebUINodeFactory<EmailChangeTrackerNodeModel> {
+
+    private static final WebUINodeConfiguration CONFIG = WebUINodeConfiguration.builder()//
+        .name("Email Change Tracker (Labs)")//
+        .icon("./emailChangeTracker.png")//
+        .shortDescription("Outputs the emails whose flags changed or that were deleted since a previous run using a "
+            + "session provided by an Email Connector node.")//
+        .fullDescription("""
+                Outputs the emails of a folder whose flags changed (including new emails) or that were expunged
+                since a previous run, e.g. to keep a mirror of the mailbox state in a database up to date without
+                reading the whole folder again.
+                <br/>
+                The node requires an IMAP server supporting modification sequences (CONDSTORE, RFC 7162). The state
+                of a run, the folder's UIDVALIDITY and HIGHESTMODSEQ, is output in a second table which is to be
+                provided as input to the next run (e.g. by writing it to a file or database). Without previous
+                state, the node outputs the current state only. Expunged emails are reported only if the server
+                supports QRESYNC; they are identified by their UID as their content is not available anymore.
+                If the UIDs of the folder changed (UIDVALIDITY), changes cannot be determined and the current
+                state is output as new initial state.""")//
+        .modelSettingsClass(EmailChangeTrackerNodeSettings.class)//
+        .nodeType(NodeType.Source)//
+        .addInputPort("Email Session", EmailSessionPortObject.TYPE, "The email session.")//
+        .addInputPort("Previous State", BufferedDataTable.TYPE_OPTIONAL,
+            "The state table output by the previous run. Rows of other folders are passed through.")//
+        .addOutputTable("Changes", "One row per email whose flags changed or that was expunged, along with its UID, "
+            + "Email ID (changed emails only), the type of change and the current flags.")//
+        .addOutputTable("State", "The state of the folders (UIDVALIDITY and HIGHESTMODSEQ), to be provided to the "
+            + "next run.")//
+        .sinceVersion(5, 9, 0).build();
+
+    /**
+     * Create a new factory instance (need this constructor for ser/de)
+     */
+    public EmailChangeTrackerNodeFactory() {
+        super(CONFIG);
+    }
+
+    @Override
+    public EmailChangeTrackerNodeModel createNodeModel() {
+        return new EmailChangeTrackerNodeModel(CONFIG, EmailChangeTrackerNodeSettings.class);
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.changetracker;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.angus.mail.imap.IMAPFolder;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.DataType;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.collection.CollectionCellFactory;
+import org.knime.core.data.collection.ListCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.util.CheckUtils;
+import org.knime.email.nodes.reader.EmailReaderNodeProcessor;
+import org.knime.email.session.EmailIncomingSession;
+import org.knime.email.session.EmailSessionKey;
+import org.knime.email.session.ExpungedMessages;
+import org.knime.email.util.EmailUtil;
+
+import jakarta.mail.FetchProfile;
+import jakarta.mail.Flags;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.UIDFolder;
+
+/**
+ * Determines the messages of a folder whose flags changed or that were expunged since a previous run, based on the
+ * folder's HIGHESTMODSEQ recorded in that run (CONDSTORE and QRESYNC, RFC 7162). The state of a run (UIDVALIDITY and
+ * HIGHESTMODSEQ per folder) is output as a table, to be provided as input to the next run.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class EmailChangeTrackerNodeProcessor {
+
+    static final String COL_FOLDER = "Folder";
+
+    static final String COL_UIDVALIDITY = "UIDVALIDITY";
+
+    static final String COL_HIGHESTMODSEQ = "HIGHESTMODSEQ";
+
+    /** Change type of new messages and messages whose flags changed. */
+    static final String CHANGE_CHANGED = "Changed";
+
+    /** Change type of expunged messages. */
+    static final String CHANGE_EXPUNGED = "Expunged";
+
+    static final DataTableSpec CHANGES_SPEC = new DataTableSpecCreator() //
+        .addColumns(new DataColumnSpecCreator(COL_FOLDER, StringCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator("UID", LongCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator(EmailReaderNodeProcessor.COL_EMAIL_ID, StringCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator("Change", StringCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator("Flags", ListCell.getCollectionType(StringCell.TYPE)).createSpec()) //
+        .createSpec();
+
+    static final DataTableSpec STATE_SPEC = new DataTableSpecCreator() //
+        .addColumns(new DataColumnSpecCreator(COL_FOLDER, StringCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator(COL_UIDVALIDITY, LongCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator(COL_HIGHESTMODSEQ, LongCell.TYPE).createSpec()) //
+        .createSpec();
+
+    private static final Map<Flags.Flag, String> SYSTEM_FLAGS = Map.of(Flags.Flag.ANSWERED, "\\Answered",
+        Flags.Flag.DELETED, "\\Deleted", Flags.Flag.DRAFT, "\\Draft", Flags.Flag.FLAGGED, "\\Flagged",
+        Flags.Flag.RECENT, "\\Recent", Flags.Flag.SEEN, "\\Seen");
+
+    private final EmailSessionKey m_mailSessionKey;
+
+    private final EmailChangeTrackerNodeSettings m_settings;
+
+    private BufferedDataTable m_changesTable;
+
+    private BufferedDataTable m_stateTable;
+
+    private String m_warning;
+
+    /**
+     * @param mailSessionKey the session to use
+     * @param settings the node settings
+     */
+    public EmailChangeTrackerNodeProcessor(final EmailSessionKey mailSessionKey,
+        final EmailChangeTrackerNodeSettings settings) {
+        m_mailSessionKey = mailSessionKey;
+        m_settings = settings;
+    }
+
+    /**
+     * Checks that the given table is a state table as output by a previous run.
+     *
+     * @param spec the spec of the previous state table
+     * @throws InvalidSettingsException if a column is missing or of wrong type
+     */
+    static void checkStateSpec(final DataTableSpec spec) throws InvalidSettingsException {
+        for (final var col : STATE_SPEC) {
+            final var inCol = spec.getColumnSpec(col.getName());
+            CheckUtils.checkSetting(inCol != null && inCol.getType().isCompatible(
+                col.getType().equals(StringCell.TYPE) ? StringValue.class : LongValue.class),
+                "The previous state table must contain the column '%s' (as output by a previous run).", col.getName());
+        }
+    }
+
+    /**
+     * Determines the changes since the previous run and creates the changes and the new state table.
+     *
+     * @param exec the execution context
+     * @param previousState the state table of the previous run, or {@code null} for the first run
+     * @throws MessagingException if the changes cannot be retrieved
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    public void trackChanges(final ExecutionContext exec, final BufferedDataTable previousState)
+        throws MessagingException, CanceledExecutionException {
+        try (final EmailIncomingSession session = m_mailSessionKey.connectIncoming()) {
+            trackChanges(exec, previousState, ChangeSource.of(session));
+        }
+    }
+
+    /**
+     * Determines the changes since the previous run using the given access to the server.
+     *
+     * @param exec the execution context
+     * @param previousState the state table of the previous run, or {@code null} for the first run
+     * @param source the access to the server
+     * @throws MessagingException if the changes cannot be retrieved
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    void trackChanges(final ExecutionContext exec, final BufferedDataTable previousState, final ChangeSource source)
+        throws MessagingException, CanceledExecutionException {
+        final Map<String, long[]> state = readState(previousState);
+        final String folderName = m_settings.m_folder;
+        final long[] previous = state.get(folderName);
+        final BufferedDataContainer changes = exec.createDataContainer(CHANGES_SPEC);
+        try {
+            CheckUtils.check(source.hasCapability(EmailIncomingSession.CAPABILITY_CONDSTORE),
+                MessagingException::new, () -> "The email server doesn't support modification sequences (CONDSTORE).");
+            final boolean isQResync =
+                previous != null && source.hasCapability(EmailIncomingSession.CAPABILITY_QRESYNC);
+            // the expunged messages are determined first, the state recorded then may report changes twice but
+            // doesn't miss any
+            final Optional<ExpungedMessages> expunged = isQResync
+                ? Optional.of(source.getExpungedMessages(folderName, previous[0], previous[1])) : Optional.empty();
+            exec.checkCanceled();
+            try (final IMAPFolder folder = source.openFolder(folderName)) {
+                final long uidValidity = expunged.map(ExpungedMessages::uidValidity).orElse(folder.getUIDValidity());
+                final long highestModSeq =
+                    expunged.map(ExpungedMessages::highestModSeq).orElse(folder.getHighestModSeq());
+                // no HIGHESTMODSEQ reported (NOMODSEQ), a later run couldn't determine the changes since this one
+                CheckUtils.check(highestModSeq > 0, MessagingException::new,
+                    () -> "The folder '%s' doesn't support modification sequences (NOMODSEQ).".formatted(folderName));
+                state.put(folderName, new long[]{uidValidity, highestModSeq});
+                if (previous == null) {
+                    m_warning = "No previous state for folder '%s', the current state is output as initial state."
+                        .formatted(folderName);
+                } else if (previous[0] != uidValidity) {
+                    m_warning = ("The UIDs of folder '%s' changed (UIDVALIDITY), changes cannot be determined. The "
+                        + "current state is output as initial state.").formatted(folderName);
+                } else {
+                    writeChangedMessages(exec, folder, previous[1], changes);
+                    expunged.ifPresent(e -> writeExpungedMessages(e, changes));
+                    if (!isQResync) {
+                        m_warning = "The email server doesn't support QRESYNC, expunged messages cannot be determined.";
+                    }
+                }
+            }
+        } finally {
+            changes.close();
+        }
+        m_changesTable = changes.getTable();
+        m_stateTable = writeState(exec, state);
+    }
+
+    private static Map<String, long[]> readState(final BufferedDataTable previousState) {
+        final Map<String, long[]> state = new LinkedHashMap<>();
+        if (previousState == null) {
+            return state;
+        }
+        final var spec = previousState.getDataTableSpec();
+        final int folderIdx = spec.findColumnIndex(COL_FOLDER);
+        final int uidValidityIdx = spec.findColumnIndex(COL_UIDVALIDITY);
+        final int modSeqIdx = spec.findColumnIndex(COL_HIGHESTMODSEQ);
+        try (final var it = previousState.iterator()) {
+            while (it.hasNext()) {
+                final DataRow row = it.next();
+                final DataCell folder = row.getCell(folderIdx);
+                final DataCell uidValidity = row.getCell(uidValidityIdx);
+                final DataCell modSeq = row.getCell(modSeqIdx);
+                if (!folder.isMissing() && !uidValidity.isMissing() && !modSeq.isMissing()) {
+                    state.put(((StringValue)folder).getStringValue(), new long[]{
+                        ((LongValue)uidValidity).getLongValue(), ((LongValue)modSeq).getLongValue()});
+                }
+            }
+        }
+        return state;
+    }
+
+    private void writeChangedMessages(final ExecutionContext exec, final IMAPFolder folder, final long modSeq,
+        final BufferedDataContainer changes) throws MessagingException, CanceledExecutionException {
+        final Message[] changed = folder.getChangedSince(modSeq);
+        final var fetchProfile = new FetchProfile();
+        fetchProfile.add(FetchProfile.Item.FLAGS);
+        fetchProfile.add(UIDFolder.FetchProfileItem.UID);
+        fetchProfile.add(EmailUtil.MESSAGEID_HEADER);
+        folder.fetch(changed, fetchProfile);
+        for (final Message message : changed) {
+            exec.checkCanceled();
+            if (!message.isExpunged()) {
+                final String messageId = EmailUtil.getMessageId(message);
+                changes.addRowToTable(new DefaultRow(RowKey.createRowKey(changes.size()), //
+                    new StringCell(m_settings.m_folder), //
+                    new LongCell(folder.getUID(message)), //
+                    messageId == null ? DataType.getMissingCell() : new StringCell(messageId), //
+                    new StringCell(CHANGE_CHANGED), //
+                    toCell(message.getFlags())));
+            }
+        }
+    }
+
+    private void writeExpungedMessages(final ExpungedMessages expunged, final BufferedDataContainer changes) {
+        for (final long uid : expunged.uids()) {
+            changes.addRowToTable(new DefaultRow(RowKey.createRowKey(changes.size()), //
+                new StringCell(m_settings.m_folder), //
+                new LongCell(uid), //
+                DataType.getMissingCell(), //
+                new StringCell(CHANGE_EXPUNGED), //
+                DataType.getMissingCell()));
+        }
+    }
+
+    private static DataCell toCell(final Flags flags) {
+        final List<StringCell> cells = new ArrayList<>();
+        for (final Flags.Flag flag : flags.getSystemFlags()) {
+            final String name = SYSTEM_FLAGS.get(flag);
+            if (name != null) {
+                cells.add(new StringCell(name));
+            }
+        }
+        for (final String userFlag : flags.getUserFlags()) {
+            cells.add(new StringCell(userFlag));
+        }
+        return CollectionCellFactory.createListCell(cells);
+    }
+
+    private static BufferedDataTable writeState(final ExecutionContext exec, final Map<String, long[]> state) {
+        final var container = exec.createDataContainer(STATE_SPEC);
+        long rowIndex = 0;
+        for (final Map.Entry<String, long[]> entry : state.entrySet()) {
+            container.addRowToTable(new DefaultRow(RowKey.createRowKey(rowIndex++), new StringCell(entry.getKey()),
+                new LongCell(entry.getValue()[0]), new LongCell(entry.getValue()[1])));
+        }
+        container.close();
+        return container.getTable();
+    }
+
+    /**
+     * The access to the server the changes are determined with, an {@link EmailIncomingSession} unless in tests.
+     */
+    interface ChangeSource {
+
+        /**
+         * @param capability the capability, e.g. "CONDSTORE"
+         * @return whether the server announced the given capability
+         * @throws MessagingException if the capabilities cannot be retrieved
+         */
+        boolean hasCapability(String capability) throws MessagingException;
+
+        /**
+         * @param folderFullName the name of the folder
+         * @param uidValidity the UID validity of the folder when the modification sequence was recorded
+         * @param modSeq the modification sequence of the previous run
+         * @return the messages expunged since the given modification sequence
+         * @throws MessagingException if the expunged messages cannot be retrieved
+         * @see EmailIncomingSession#getExpungedMessages(String, long, long)
+         */
+        ExpungedMessages getExpungedMessages(String folderFullName, long uidValidity, long modSeq)
+            throws MessagingException;
+
+        /**
+         * @param folderFullName the name of the folder
+         * @return the folder opened in read only mode
+         * @throws MessagingException if the folder cannot be opened
+         */
+        IMAPFolder openFolder(String folderFullName) throws MessagingException;
+
+        /**
+         * @param session the session to access the server with
+         * @return the access via the given session
+         */
+        static ChangeSource of(final EmailIncomingSession session) {
+            return new ChangeSource() {
+
+                @Override
+                public boolean hasCapability(final String capability) throws MessagingException {
+                    return session.hasCapability(capability);
+                }
+
+                @Override
+                public ExpungedMessages getExpungedMessages(final String folderFullName, final long uidValidity,
+                    final long modSeq) throws MessagingException {
+                    return session.getExpungedMessages(folderFullName, uidValidity, modSeq);
+                }
+
+                @Override
+                public IMAPFolder openFolder(final String folderFullName) throws MessagingException {
+                    return (IMAPFolder)session.openFolder(folderFullName);
+                }
+            };
+        }
+    }
+
+    /**
+     * @return the messages whose flags changed (including new messages) or that were expunged since the previous run
+     */
+    public BufferedDataTable getChangesTable() {
+        return m_changesTable;
+    }
+
+    /**
+     * @return the new state, to be provided to the next run
+     */
+    public BufferedDataTable getStateTable() {
+        return m_stateTable;
+    }
+
+    /**
+     * @return a warning about changes that couldn't be determined, if any
+     */
+    public Optional<String> getWarning() {
+        return Optional.ofNullable(m_warning);
+    }
+}
@@ -52,11 +52,18 @@
 import java.io.IOException;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
@@ -64,6 +71,7 @@
 import org.knime.core.node.message.Message;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.util.ThreadUtils;
 import org.knime.core.webui.node.dialog.defaultdialog.NodeParametersUtil;
 import org.knime.credentials.base.CredentialPortObject;
 import org.knime.credentials.base.NoSuchCredentialException;
@@ -130,22 +138,66 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs)
     @Override
     protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
         final var mailSessionKey = createKey(inObjects, m_settings);
-        //test incoming if set...
+        if (m_settings.m_validateConnection) {
+            validateConnections(mailSessionKey, exec);
+        }
+        m_cacheId = EmailSessionCache.store(mailSessionKey);
+        return new PortObject[]{new EmailSessionPortObject(m_cacheId)};
+    }
+
+    /**
+     * Connects to the incoming and outgoing server (if set) concurrently. The connections are parked in the key (see
+     * {@link EmailSessionKey#park(org.knime.email.session.EmailIncomingSession)}) for the first downstream node.
+     */
+    private static void validateConnections(final EmailSessionKey mailSessionKey, final ExecutionContext exec)
+        throws Exception {
+        exec.setMessage("Validating mail server settings...");
+        // set if validation failed or was canceled (before the parked connections are closed), a connection
+        // established afterwards is closed right away
+        final var abandoned = new AtomicBoolean();
+        final Future<Void> incoming;
         if (mailSessionKey.incomingAvailable()) {
-            exec.setMessage("Validating incoming mail server settings...");
-            try (final var mailSession = mailSessionKey.connectIncoming()) {
-                // try connect
+            incoming = KNIMEConstants.GLOBAL_THREAD_POOL.enqueue(ThreadUtils.callableWithContext(() -> {
+                final var session = mailSessionKey.connectIncoming();
+                if (abandoned.get()) {
+                    session.close();
+                    return null;
+                }
+                mailSessionKey.park(session);
+                if (abandoned.get()) { // abandoned while parking, the parked connections may already be closed
+                    mailSessionKey.closeParkedConnections();
+                }
+                return null;
+            }));
+        } else {
+            incoming = CompletableFuture.completedFuture(null);
+        }
+        try {
+            if (mailSessionKey.outgoingAvailable()) {
+                mailSessionKey.park(mailSessionKey.connectOutgoing());
             }
+            waitFor(incoming, exec);
+        } catch (Exception e) { // NOSONAR
+            // don't wait for the incoming connection (e.g. when canceled), it's closed once established
+            abandoned.set(true);
+            incoming.cancel(true);
+            mailSessionKey.closeParkedConnections();
+            throw e;
         }
-        //...and/or outgoing if set
-        if (mailSessionKey.outgoingAvailable()) {
-            exec.setMessage("Validating outgoing mail server settings...");
-            try (final var mailSession = mailSessionKey.connectOutgoing()) {
-                // try connect
+    }
+
+    private static void waitFor(final Future<Void> future, final ExecutionContext exec)
+        throws Exception {
+        while (true) {
+            exec.checkCanceled();
+            try {
+                future.get(250, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) { // NOSONAR check for cancellation and continue waiting
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
             }
         }
-        m_cacheId = EmailSessionCache.store(mailSessionKey);
-        return new PortObject[]{new EmailSessionPortObject(m_cacheId)};
     }
 
     private static final EmailSessionKey createKey(final PortObject[] inObjects,
@@ -443,6 +443,17 @@ interface ConnectionPropertySection {
     @Migrate(loadDefaultIfAbsent = true)
     int m_readTimeout = EmailSessionKey.DEF_TIMEOUT_READ_S;
 
+    @Layout(ConnectionPropertySection.class)
+    @Widget(title = "Validate connection on execution", advanced = true,
+        description = """
+                If checked, the node connects to the configured mail server(s) when executed (incoming and outgoing
+                server concurrently), so that wrong settings or credentials are reported right away. The connections
+                are kept open for the first downstream node using them. If unchecked, the node executes without
+                connecting; the connection is established, and problems are reported, when a downstream node uses it.
+                """)
+    @Migrate(loadDefaultIfAbsent = true)
+    boolean m_validateConnection = true;
+
     @Widget(title = "Custom properties",
         description = """
                 Allows to define additional connection properties. For details about the supported properties see
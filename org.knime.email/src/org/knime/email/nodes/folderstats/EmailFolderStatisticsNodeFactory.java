@@ -0,0 +1,98 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.folderstats;
+
+import org.knime.core.node.NodeFactory;
+import org.knime.core.webui.node.impl.WebUINodeConfiguration;
+import org.knime.core.webui.node.impl.WebUINodeFactory;
+import org.knime.email.port.EmailSessionPortObject;
+
+/**
+ * {@link NodeFactory} for the Email Folder Statistics node, which reports the message counts, UIDs and sizes of email
+ * folders without reading any message.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("restriction") // New Node UI is not yet API
+public final class EmailFolderStatisticsNodeFactory extends WebUINodeFactory<EmailFolderStatisticsNodeModel> {
+
+    private static final WebUINodeConfiguration CONFIG = WebUINodeConfiguration.builder()//
+        .name("Email Folder Statistics (Labs)")//
+        .icon("./emailFolderStatistics.png")//
+        .shortDescription(
+            "Retrieves statistics of email folders using a session provided by an Email Connector node.")//
+        .fullDescription("""
+                Retrieves statistics of email folders using a session provided by an Email Connector node.
+                The node outputs one row per folder with the number of messages, unseen and recent messages,
+                the next UID (UIDNEXT), the UID validity (UIDVALIDITY), the highest modification sequence
+                (HIGHESTMODSEQ, only if the server supports CONDSTORE) and the total size of the messages in
+                bytes (only if the server supports STATUS=SIZE). Items not reported by the server are missing.
+                <br/>
+                The statistics are retrieved with the IMAP STATUS command; the folders are neither opened nor is
+                any message downloaded. This makes the node a cheap way to monitor the growth of a mailbox or to
+                decide whether new messages have arrived (e.g. by comparing UIDNEXT and UIDVALIDITY with the
+                values of a previous run) before running an Email Reader.""")//
+        .modelSettingsClass(EmailFolderStatisticsNodeSettings.class)//
+        .nodeType(NodeType.Source)//
+        .addInputPort("Email Session", EmailSessionPortObject.TYPE, "The email session.")//
+        .addOutputTable("Folder Statistics", "One row per folder with the folder statistics.")//
+        .sinceVersion(5, 9, 0).build();
+
+    /**
+     * Create a new factory instance (need this constructor for ser/de)
+     */
+    public EmailFolderStatisticsNodeFactory() {
+        super(CONFIG);
+    }
+
+    @Override
+    public EmailFolderStatisticsNodeModel createNodeModel() {
+        return new EmailFolderStatisticsNodeModel(CONFIG, EmailFolderStatisticsNodeSettings.class);
+    }
+}
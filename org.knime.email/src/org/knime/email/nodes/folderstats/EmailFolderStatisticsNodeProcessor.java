@@ -0,0 +1,149 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.folderstats;
+
+import java.util.List;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.email.session.EmailIncomingSession;
+import org.knime.email.session.EmailSessionKey;
+import org.knime.email.session.FolderStatus;
+
+import jakarta.mail.MessagingException;
+
+/**
+ * Retrieves the status of email folders (IMAP <tt>STATUS</tt> command) without selecting the folders or downloading
+ * any message.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class EmailFolderStatisticsNodeProcessor {
+
+    static final DataTableSpec SPEC = new DataTableSpecCreator() //
+        .addColumns(new DataColumnSpecCreator("Folder", StringCell.TYPE).createSpec()) //
+        .addColumns(longColumn("Messages")) //
+        .addColumns(longColumn("Unseen")) //
+        .addColumns(longColumn("Recent")) //
+        .addColumns(longColumn("UIDNEXT")) //
+        .addColumns(longColumn("UIDVALIDITY")) //
+        .addColumns(longColumn("HIGHESTMODSEQ")) //
+        .addColumns(longColumn("Size (Bytes)")) //
+        .createSpec();
+
+    private final EmailSessionKey m_mailSessionKey;
+
+    private final EmailFolderStatisticsNodeSettings m_settings;
+
+    /**
+     * @param mailSessionKey the session to use
+     * @param settings the node settings
+     */
+    public EmailFolderStatisticsNodeProcessor(final EmailSessionKey mailSessionKey,
+        final EmailFolderStatisticsNodeSettings settings) {
+        m_mailSessionKey = mailSessionKey;
+        m_settings = settings;
+    }
+
+    private static DataColumnSpec longColumn(final String name) {
+        return new DataColumnSpecCreator(name, LongCell.TYPE).createSpec();
+    }
+
+    /**
+     * Retrieves the status of the configured folders, one row per folder.
+     *
+     * @param exec the execution context
+     * @return the table with the folder statistics
+     * @throws MessagingException if the status cannot be retrieved
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    public BufferedDataTable getFolderStatistics(final ExecutionContext exec)
+        throws MessagingException, CanceledExecutionException {
+        final var container = exec.createDataContainer(SPEC);
+        try (final EmailIncomingSession session = m_mailSessionKey.connectIncoming()) {
+            final List<String> folders =
+                m_settings.m_allFolders ? List.of(session.listFolders()) : List.of(m_settings.m_folder);
+            long rowIndex = 0;
+            for (final String folder : folders) {
+                exec.checkCanceled();
+                exec.setProgress(rowIndex / (double)folders.size(), () -> "Retrieving status of " + folder);
+                final FolderStatus status = session.getFolderStatus(folder);
+                container.addRowToTable(new DefaultRow(RowKey.createRowKey(rowIndex), //
+                    new StringCell(folder), //
+                    toCell(status.messages()), //
+                    toCell(status.unseen()), //
+                    toCell(status.recent()), //
+                    toCell(status.uidNext()), //
+                    toCell(status.uidValidity()), //
+                    toCell(status.highestModSeq()), //
+                    toCell(status.size())));
+                rowIndex++;
+            }
+        } finally {
+            container.close();
+        }
+        return container.getTable();
+    }
+
+    /** -1 denotes an item not reported by the server. */
+    private static DataCell toCell(final long value) {
+        return value < 0 ? DataType.getMissingCell() : new LongCell(value);
+    }
+}
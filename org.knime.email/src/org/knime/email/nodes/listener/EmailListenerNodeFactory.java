@@ -0,0 +1,103 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.listener;
+
+import org.knime.core.node.NodeFactory;
+import org.knime.core.webui.node.impl.WebUINodeConfiguration;
+import org.knime.core.webui.node.impl.WebUINodeFactory;
+import org.knime.email.nodes.reader.EmailReaderNodeProcessor;
+import org.knime.email.port.EmailSessionPortObject;
+
+/**
+ * {@link NodeFactory} for the Email Listener node, which waits for new emails in a folder and reads them.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("restriction") // New Node UI is not yet API
+public final class EmailListenerNodeFactory extends WebUINodeFactory<EmailListenerNodeModel> {
+
+    private static final WebUINodeConfiguration CONFIG = WebUINodeConfiguration.builder()//
+        .name("Email Listener (Labs)")//
+        .icon("./emailListener.png")//
+        .shortDescription("Waits for new emails in a folder and reads them using a session provided by an Email "
+            + "Connector node.")//
+        .fullDescription("""
+                Waits for new emails in a folder and reads them using a session provided by an Email Connector
+                node. New emails are the emails arriving after the node started executing. The node finishes as
+                soon as the configured number of new emails arrived or the maximum waiting time elapsed, and
+                outputs the new emails in the same format as the Email Reader node.
+                <br/>
+                Servers supporting IMAP IDLE notify the node about new emails immediately, so that they are
+                processed within seconds; the IDLE command is renewed every 29 minutes. Other servers are polled
+                in the configured interval. Lost connections are re-established. Use the node in a loop to
+                process emails continuously.""")//
+        .modelSettingsClass(EmailListenerNodeSettings.class)//
+        .nodeType(NodeType.Source)//
+        .addInputPort("Email Session", EmailSessionPortObject.TYPE, "The email session.")//
+        .addOutputTable("Email Data", "The new emails in a table, one row per email.")//
+        .addOutputTable("Attachments",
+            "The attachments of the new emails in a table, one row per attachment. Can be joined with the original "
+                + "message via the " + EmailReaderNodeProcessor.COL_EMAIL_ID + " column.")//
+        .addOutputTable("Headers",
+            "The headers of the new emails in a table, one row per header. Can be joined with the original message "
+                + "via the " + EmailReaderNodeProcessor.COL_EMAIL_ID + " column.")//
+        .sinceVersion(5, 9, 0).build();
+
+    /**
+     * Create a new factory instance (need this constructor for ser/de)
+     */
+    public EmailListenerNodeFactory() {
+        super(CONFIG);
+    }
+
+    @Override
+    public EmailListenerNodeModel createNodeModel() {
+        return new EmailListenerNodeModel(CONFIG, EmailListenerNodeSettings.class);
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.angus.mail.imap.IMAPFolder;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.util.CheckUtils;
+import org.knime.email.nodes.reader.EmailReaderNodeProcessor;
+import org.knime.email.session.EmailIncomingSession;
+import org.knime.email.session.EmailSessionKey;
+
+import jakarta.mail.FolderClosedException;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.StoreClosedException;
+import jakarta.mail.UIDFolder;
+
+/**
+ * Waits for new emails in a folder and reads them with the output of the Email Reader. New emails are those with a UID
+ * not smaller than the folder's UIDNEXT when listening started. Servers supporting IMAP IDLE (RFC 2177) notify about
+ * new emails (EXISTS responses) while the connection is idle; the IDLE command is renewed every
+ * {@value #IDLE_RENEWAL_MS} ms since servers may drop clients idling for 30 minutes. For other servers the folder is
+ * polled. Lost connections are re-established (at most {@value #MAX_RECONNECTS} times in a row).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class EmailListenerNodeProcessor {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(EmailListenerNodeProcessor.class);
+
+    /** Duration after which an IDLE command is ended and a new one is issued. */
+    static final long IDLE_RENEWAL_MS = 29 * 60 * 1000L;
+
+    /** Number of consecutive reconnects after which a lost connection fails the node. */
+    static final int MAX_RECONNECTS = 3;
+
+    private static final String CAPABILITY_IDLE = "IDLE";
+
+    /** Interval in which an ongoing IDLE is checked for cancellation and renewal. */
+    private static final long WATCHDOG_INTERVAL_MS = 500;
+
+    private final EmailSessionKey m_mailSessionKey;
+
+    private final EmailListenerNodeSettings m_settings;
+
+    private final EmailReaderNodeProcessor m_reader;
+
+    /**
+     * @param mailSessionKey the session to use
+     * @param settings the node settings
+     */
+    public EmailListenerNodeProcessor(final EmailSessionKey mailSessionKey, final EmailListenerNodeSettings settings) {
+        m_mailSessionKey = mailSessionKey;
+        m_settings = settings;
+        m_reader = new EmailReaderNodeProcessor(mailSessionKey, settings.m_markAsRead);
+    }
+
+    /**
+     * Waits until the configured number of new emails arrived (or the maximum waiting time elapsed) and writes the new
+     * emails to the tables available via {@link #getMsgTable()}, {@link #getAttachTable()} and
+     * {@link #getHeaderTable()}.
+     *
+     * @param exec the execution context
+     * @throws Exception if the emails cannot be retrieved or written
+     */
+    @SuppressWarnings("resource") // closed in finally
+    public void listenAndFillTables(final ExecutionContext exec) throws Exception {
+        final long deadline = System.currentTimeMillis() + m_settings.m_maxWaitSeconds * 1000L;
+        final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            final var thread = new Thread(r, "KNIME-Email-Listener-Watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        EmailIncomingSession session = m_mailSessionKey.connectIncoming();
+        IMAPFolder folder = null;
+        try {
+            folder = openFolder(session);
+            final boolean isIdleSupported = session.hasCapability(CAPABILITY_IDLE);
+            final long uidValidity = folder.getUIDValidity();
+            final long uidNext = getUIDNext(folder);
+            LOGGER.debugWithFormat("Listening to folder '%s' for UIDs >= %d (%s)", m_settings.m_folder, uidNext,
+                isIdleSupported ? "IDLE" : "polling");
+            var reconnects = 0;
+            Message[] newMessages;
+            while (true) { // NOSONAR
+                try {
+                    newMessages = getNewMessages(folder, uidNext);
+                    final var nrNew = newMessages.length;
+                    exec.setMessage(() -> "Waiting for new emails (" + nrNew + " received)");
+                    if (nrNew >= m_settings.m_minMessages || System.currentTimeMillis() >= deadline) {
+                        break;
+                    }
+                    if (isIdleSupported) {
+                        idle(folder, exec, watchdog, Math.min(deadline, System.currentTimeMillis() + IDLE_RENEWAL_MS));
+                    } else {
+                        sleep(exec, Math.min(deadline,
+                            System.currentTimeMillis() + m_settings.m_pollIntervalSeconds * 1000L));
+                    }
+                    reconnects = 0;
+                } catch (FolderClosedException | StoreClosedException e) {
+                    if (++reconnects > MAX_RECONNECTS) {
+                        throw e;
+                    }
+                    LOGGER.debug("Connection lost while waiting for new emails, reconnecting", e);
+                    closeQuietly(session, null);
+                    session = m_mailSessionKey.connectIncoming();
+                    folder = openFolder(session);
+                    CheckUtils.check(folder.getUIDValidity() == uidValidity, MessagingException::new,
+                        () -> "The UIDs of folder '%s' changed (UIDVALIDITY), new emails cannot be identified."
+                            .formatted(m_settings.m_folder));
+                }
+            }
+            m_reader.writeMessages(exec, folder, newMessages);
+        } finally {
+            watchdog.shutdownNow();
+            closeQuietly(session, folder);
+        }
+    }
+
+    private IMAPFolder openFolder(final EmailIncomingSession session) throws MessagingException {
+        //In order to have a message set as read we need to opened the folder in read_write mode.
+        if (session.openFolderForWriting(m_settings.m_folder) instanceof IMAPFolder imapFolder) {
+            return imapFolder;
+        }
+        throw new MessagingException("Listening to new emails is only supported for IMAP servers");
+    }
+
+    private static long getUIDNext(final IMAPFolder folder) throws MessagingException {
+        final long uidNext = folder.getUIDNext();
+        if (uidNext > 0) {
+            return uidNext;
+        }
+        // server didn't report UIDNEXT when selecting the folder
+        final int count = folder.getMessageCount();
+        return count == 0 ? 1 : (folder.getUID(folder.getMessage(count)) + 1);
+    }
+
+    private static Message[] getNewMessages(final IMAPFolder folder, final long uidNext) throws MessagingException {
+        // "UID FETCH <uidNext>:*" returns the last message if there is no message with a larger UID
+        final List<Message> newMessages = new ArrayList<>();
+        for (final Message message : folder.getMessagesByUID(uidNext, UIDFolder.LASTUID)) {
+            if (message != null && folder.getUID(message) >= uidNext) {
+                newMessages.add(message);
+            }
+        }
+        return newMessages.toArray(Message[]::new);
+    }
+
+    /**
+     * Issues IDLE and returns when the server sent a notification, at the given time or on cancellation, whatever comes
+     * first. The IDLE is ended by accessing the folder from the watchdog thread (which makes jakarta.mail send DONE).
+     */
+    private static void idle(final IMAPFolder folder, final ExecutionMonitor exec,
+        final ScheduledExecutorService watchdog, final long wakeAtMillis)
+        throws MessagingException, CanceledExecutionException {
+        final var check = watchdog.scheduleWithFixedDelay(() -> {
+            if (System.currentTimeMillis() >= wakeAtMillis || isCanceled(exec)) {
+                try {
+                    folder.getMessageCount();
+                } catch (MessagingException e) { // NOSONAR the listening thread will notice
+                    LOGGER.debug("Unable to end IDLE", e);
+                }
+            }
+        }, WATCHDOG_INTERVAL_MS, WATCHDOG_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        try {
+            folder.idle(true);
+        } finally {
+            check.cancel(false);
+        }
+        exec.checkCanceled();
+    }
+
+    private static void sleep(final ExecutionMonitor exec, final long wakeAtMillis)
+        throws CanceledExecutionException {
+        long remaining;
+        while ((remaining = wakeAtMillis - System.currentTimeMillis()) > 0) {
+            exec.checkCanceled();
+            try {
+                Thread.sleep(Math.min(remaining, WATCHDOG_INTERVAL_MS));
+            } catch (InterruptedException e) { // NOSONAR treated as cancellation
+                Thread.currentThread().interrupt();
+                throw new CanceledExecutionException("Interrupted while waiting for new emails");
+            }
+        }
+    }
+
+    private static boolean isCanceled(final ExecutionMonitor exec) {
+        try {
+            exec.checkCanceled();
+            return false;
+        } catch (CanceledExecutionException e) { // NOSONAR
+            return true;
+        }
+    }
+
+    private static void closeQuietly(final EmailIncomingSession session, final IMAPFolder folder) {
+        try {
+            if (folder != null && folder.isOpen()) {
+                folder.close(false);
+            }
+            session.close();
+        } catch (MessagingException e) { // NOSONAR closing is best effort
+            LOGGER.debug("Failed to close email connection", e);
+        }
+    }
+
+    /**
+     * @return the new emails, in the format of the Email Reader
+     */
+    public BufferedDataTable getMsgTable() {
+        return m_reader.getMsgTable();
+    }
+
+    /**
+     * @return the attachments of the new emails
+     */
+    public BufferedDataTable getAttachTable() {
+        return m_reader.getAttachTable();
+    }
+
+    /**
+     * @return the headers of the new emails
+     */
+    public BufferedDataTable getHeaderTable() {
+        return m_reader.getHeaderTable();
+    }
+}
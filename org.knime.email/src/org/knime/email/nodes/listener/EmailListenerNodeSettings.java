@@ -0,0 +1,103 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.listener;
+
+import org.knime.email.util.UIChoices.FolderProvider;
+import org.knime.node.parameters.Advanced;
+import org.knime.node.parameters.NodeParameters;
+import org.knime.node.parameters.Widget;
+import org.knime.node.parameters.layout.Layout;
+import org.knime.node.parameters.layout.Section;
+import org.knime.node.parameters.widget.choices.ChoicesProvider;
+import org.knime.node.parameters.widget.number.NumberInputWidget;
+import org.knime.node.parameters.widget.number.NumberInputWidgetValidation.MinValidation.IsPositiveIntegerValidation;
+
+/**
+ * Node Settings for the Email Listener node.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("restriction") // New Node UI is not yet API
+public final class EmailListenerNodeSettings implements NodeParameters {
+
+    @Widget(title = "Folder",
+        description = "The full path to the email folder to listen to e.g. 'INBOX' or Folder.Subfolder")
+    @ChoicesProvider(FolderProvider.class)
+    String m_folder;
+
+    @Widget(title = "Minimum number of new emails",
+        description = "The node finishes as soon as at least this number of new emails arrived in the folder.")
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    int m_minMessages = 1;
+
+    @Widget(title = "Maximum waiting time (seconds)",
+        description = "The node finishes after this time even if fewer new emails arrived (possibly none).")
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    int m_maxWaitSeconds = 600;
+
+    @Section(title = "Advanced")
+    @Advanced
+    interface AdvancedSection {
+    }
+
+    @Widget(title = "Polling interval (seconds)",
+        description = "Servers supporting IMAP IDLE notify the node about new emails immediately. For other servers "
+            + "the node checks for new emails in this interval.",
+        advanced = true)
+    @Layout(AdvancedSection.class)
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    int m_pollIntervalSeconds = 5;
+
+    @Widget(title = "Mark read emails as read",
+        description = "By default all loaded emails are flagged as read. To prevent this, unselect this option in "
+            + "which case the node will reset the read status of all loaded emails after downloading their content.",
+        advanced = true)
+    @Layout(AdvancedSection.class)
+    boolean m_markAsRead = true;
+}
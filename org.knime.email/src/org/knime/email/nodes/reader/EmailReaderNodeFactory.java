@@ -126,6 +126,8 @@ public void onApply(final NativeNodeContainer nnc, final NodeSettingsRO previous
         .shortDescription("Reads email from a folder using a session provided by an Email Connector node.")//
         .fullDescription("""
                 Reads email from a folder using a session provided by an Email Connector node.
+                The node supports streaming execution, in which case the emails, attachments and headers are
+                passed on to the downstream nodes while further emails are fetched.
                 """)//
         .modelSettingsClass(EmailReaderNodeSettings.class)//
         .nodeType(NodeType.Source)//
@@ -51,6 +51,7 @@
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -65,6 +66,14 @@
 import org.knime.core.node.context.ports.PortsConfiguration;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.streamable.InputPortRole;
+import org.knime.core.node.streamable.OutputPortRole;
+import org.knime.core.node.streamable.PartitionInfo;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortObjectInput;
+import org.knime.core.node.streamable.PortOutput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.node.streamable.StreamableOperator;
 import org.knime.core.node.util.CheckUtils;
 import org.knime.core.webui.node.dialog.defaultdialog.NodeParametersUtil;
 import org.knime.core.webui.node.impl.WebUINodeConfiguration;
@@ -99,7 +108,7 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs)
         throws InvalidSettingsException {
         CheckUtils.checkSetting(StringUtils.isNotBlank(m_settings.m_folder), "Email folder name not selected");
         EmailNodeUtil.checkIncomingAvailable(inSpecs);
-        return null;
+        return EmailReaderNodeProcessor.getOutputSpecs(m_settings);
     }
 
     @Override
@@ -122,6 +131,42 @@ protected PortObject[] execute(final PortObject[] inObjects, final ExecutionCont
         return list.toArray(PortObject[]::new);
     }
 
+    @Override
+    public InputPortRole[] getInputPortRoles() {
+        return new InputPortRole[]{InputPortRole.NONDISTRIBUTED_NONSTREAMABLE};
+    }
+
+    @Override
+    public OutputPortRole[] getOutputPortRoles() {
+        final var roles = new OutputPortRole[getNrOutPorts()];
+        Arrays.fill(roles, OutputPortRole.NONDISTRIBUTED);
+        return roles;
+    }
+
+    /**
+     * Pushes the message, attachment and header rows to the outputs as the messages are fetched, so that downstream
+     * nodes process them while further messages are fetched.
+     */
+    @Override
+    public StreamableOperator createStreamableOperator(final PartitionInfo partitionInfo,
+        final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+        return new StreamableOperator() {
+            @Override
+            public void runFinal(final PortInput[] inputs, final PortOutput[] outputs, final ExecutionContext exec)
+                throws Exception {
+                final EmailSessionPortObject in =
+                    (EmailSessionPortObject)((PortObjectInput)inputs[0]).getPortObject();
+                final EmailSessionKey mailSessionKey = in.getEmailSessionKey().orElseThrow(() ->
+                new InvalidSettingsException("No mail session available"));
+                var index = 1;
+                final var attachOutput = m_settings.m_outputAttachments ? (RowOutput)outputs[index++] : null;
+                final var headerOutput = m_settings.m_outputHeaders ? (RowOutput)outputs[index] : null;
+                new EmailReaderNodeProcessor(mailSessionKey, m_settings).readEmails(exec, (RowOutput)outputs[0],
+                    attachOutput, headerOutput);
+            }
+        };
+    }
+
     @Override
     protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
         m_settings = NodeParametersUtil.loadSettings(settings, EmailReaderNodeSettings.class);
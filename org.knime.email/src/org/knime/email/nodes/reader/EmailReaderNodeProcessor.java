@@ -48,16 +48,27 @@
  */
 package org.knime.email.nodes.reader;
 
+import static org.knime.email.nodes.reader.MessageDecoder.toCell;
+
 import java.io.IOException;
-import java.io.InputStream;
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Enumeration;
 import java.util.List;
-import java.util.Optional;
-
-import org.knime.core.data.DataCell;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.LongStream;
+
+import org.eclipse.angus.mail.imap.IMAPFolder;
 import org.knime.core.data.DataColumnSpecCreator;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.DataTableSpecCreator;
@@ -65,32 +76,29 @@
 import org.knime.core.data.blob.BinaryObjectCellFactory;
 import org.knime.core.data.blob.BinaryObjectDataCell;
 import org.knime.core.data.collection.ListCell;
+import org.knime.core.data.def.DefaultRow;
 import org.knime.core.data.def.StringCell;
 import org.knime.core.data.html.HTMLCellFactory;
 import org.knime.core.data.time.localdatetime.LocalDateTimeCellFactory;
-import org.knime.core.data.v2.RowBuffer;
-import org.knime.core.data.v2.RowWrite;
-import org.knime.core.data.v2.RowWriteCursor;
-import org.knime.core.data.v2.WriteValue;
-import org.knime.core.data.v2.time.DateTimeValueInterfaces.LocalDateTimeWriteValue;
-import org.knime.core.data.v2.value.ValueInterfaces.StringListWriteValue;
-import org.knime.core.data.v2.value.ValueInterfaces.StringWriteValue;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.streamable.BufferedDataTableRowOutput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.util.ThreadUtils;
+import org.knime.email.nodes.reader.MessageDecoder.Attachment;
+import org.knime.email.nodes.reader.MessageDecoder.DecodedMessage;
 import org.knime.email.session.EmailSessionKey;
 import org.knime.email.util.EmailUtil;
 
-import jakarta.mail.Address;
+import jakarta.mail.FetchProfile;
 import jakarta.mail.Flags;
 import jakarta.mail.Flags.Flag;
+import jakarta.mail.Folder;
 import jakarta.mail.Header;
 import jakarta.mail.Message;
-import jakarta.mail.Message.RecipientType;
 import jakarta.mail.MessagingException;
-import jakarta.mail.Multipart;
-import jakarta.mail.Part;
-import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.UIDFolder;
 import jakarta.mail.search.AndTerm;
 import jakarta.mail.search.FlagTerm;
 import jakarta.mail.search.SearchTerm;
@@ -104,6 +112,29 @@ public final class EmailReaderNodeProcessor {
     /** The name of the Message ID column. */
     public static final String COL_EMAIL_ID = "Email ID";
 
+    /** Number of messages fetched ahead of the row writer (being decoded or waiting to be written). */
+    private static final int PIPELINE_CAPACITY = 16;
+
+    /**
+     * Number of bytes of the messages in the pipeline that may be buffered in memory, larger messages are buffered in
+     * temporary files (see {@link FetchedMessage}). Smaller than what a full pipeline of large messages needs, so that
+     * the fetcher waits for messages to be written rather than holding up to {@link #PIPELINE_CAPACITY} of them.
+     */
+    private static final int MAX_BUFFERED_BYTES = 8 * FetchedMessage.MAX_IN_MEMORY_SIZE;
+
+    /** Decoding is CPU-bound, leave a core to the fetcher and the writer. */
+    private static final int DECODER_THREADS =
+        Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final long CANCEL_CHECK_INTERVAL_MS = 250;
+
+    /**
+     * Number of messages fetched from the server at once. Only the UIDs of the messages to read are kept, the
+     * messages themselves are retrieved window by window and released afterwards (see {@link MessageWindows}), so that
+     * the memory used doesn't depend on the number of messages read.
+     */
+    static final int WINDOW_SIZE = 500;
+
     private static final class MatchAllSearchTerm extends SearchTerm {
         private static final long serialVersionUID = 1L;
 
@@ -163,82 +194,309 @@ static DataTableSpec getMsgSpec(final boolean retrieveFlags) {
         m_settings = settings;
     }
 
+    /**
+     * Creates a processor that writes given messages including their attachments and headers, see
+     * {@link #writeMessages(ExecutionContext, Folder, Message[])}.
+     *
+     * @param mailSessionKey the session the messages belong to
+     * @param markAsRead whether read messages are to be flagged as seen (otherwise their status is reset)
+     */
+    public EmailReaderNodeProcessor(final EmailSessionKey mailSessionKey, final boolean markAsRead) {
+        this(mailSessionKey, new EmailReaderNodeSettings());
+        m_settings.m_outputAttachments = true;
+        m_settings.m_outputHeaders = true;
+        m_settings.m_markAsRead = markAsRead;
+    }
+
+    /**
+     * @param settings the node settings
+     * @return the specs of the node's output tables: messages, attachments (if enabled) and headers (if enabled)
+     */
+    static DataTableSpec[] getOutputSpecs(final EmailReaderNodeSettings settings) {
+        final List<DataTableSpec> specs = new ArrayList<>();
+        specs.add(getMsgSpec(false));
+        if (settings.m_outputAttachments) {
+            specs.add(ATTACH_TABLE_SPEC);
+        }
+        if (settings.m_outputHeaders) {
+            specs.add(HEADER_TABLE_SPEC);
+        }
+        return specs.toArray(DataTableSpec[]::new);
+    }
+
     void readEmailsAndFillTable(final ExecutionContext context) throws Exception {
+        final var outputs = new BufferedOutputs(context);
+        readEmails(context, outputs.m_msgOutput, outputs.m_attachOutput, outputs.m_headerOutput);
+        outputs.finish();
+    }
+
+    /**
+     * Reads the messages and pushes them (and their attachments and headers) to the given outputs as they are
+     * fetched. The outputs are closed afterwards.
+     *
+     * @param context the execution context
+     * @param msgOutput the output for the messages
+     * @param attachOutput the output for the attachments, only used if attachments are output
+     * @param headerOutput the output for the headers, only used if headers are output
+     * @throws Exception if the messages cannot be retrieved or the execution was canceled
+     */
+    void readEmails(final ExecutionContext context, final RowOutput msgOutput, final RowOutput attachOutput,
+        final RowOutput headerOutput) throws Exception {
         try (final var session = m_mailSessionKey.connectIncoming();
                 //In order to have a message set as read we need to opened the folder in read_write mode.
-                final var folder = session.openFolderForWriting(m_settings.m_folder);
-//                for now we do not support header retrieval
-//                final var msgRowContainer = context.createRowContainer(getMsgSpec(m_settings.m_retrieveFlags), false);
-                final var msgRowContainer = context.createRowContainer(getMsgSpec(false), false); //
-                var msgWriteCursor = msgRowContainer.createCursor(); //
-                final var attachRowContainer = context.createRowContainer(ATTACH_TABLE_SPEC, false); //
-                var attachWriteCursor = attachRowContainer.createCursor(); //
-                final var headerRowContainer = context.createRowContainer(HEADER_TABLE_SPEC, false); //
-                var headerWriteCursor = headerRowContainer.createCursor()) {
-            final var msgRowBuffer = msgRowContainer.createRowBuffer();
-            final var attachRowBuffer = attachRowContainer.createRowBuffer();
-            final var headerRowBuffer = headerRowContainer.createRowBuffer();
-            final BinaryObjectCellFactory factory = new BinaryObjectCellFactory(context);
-            final SearchTerm searchTerm = buildSearchTerm();
-            var messages = folder.search(searchTerm);
-            final int count = messages.length;
-            final int indexStart;
-            final int indexEnd;
-            switch (m_settings.m_messageSelector) {
-                case All:
-                    indexStart = 1;
-                    indexEnd = count;
-                    break;
-                case Newest:
-                    indexStart = 1 + Math.max(0, count - m_settings.m_limitMessagesCount);
-                    indexEnd = count;
-                    break;
-                case Oldest:
-                    indexStart = 1;
-                    indexEnd = Math.min(count, m_settings.m_limitMessagesCount);
-                    break;
-                default:
-                    throw new IllegalStateException("Invalid message selector");
-            }
-            final List<Message> previouslyUnreadMessages = new ArrayList<>();
+                final var folder = session.openFolderForWriting(m_settings.m_folder)) {
+            writeMessages(context, folder, searchUIDs(folder), msgOutput, attachOutput, headerOutput);
+        }
+    }
+
+    /** Searches the messages to read, only their UIDs are kept (see {@link #WINDOW_SIZE}). */
+    private long[] searchUIDs(final Folder folder) throws MessagingException {
+        final SearchTerm searchTerm = buildSearchTerm();
+        final var messages = folder.search(searchTerm);
+        final int count = messages.length;
+        final int indexStart;
+        final int indexEnd;
+        switch (m_settings.m_messageSelector) {
+            case All:
+                indexStart = 1;
+                indexEnd = count;
+                break;
+            case Newest:
+                indexStart = 1 + Math.max(0, count - m_settings.m_limitMessagesCount);
+                indexEnd = count;
+                break;
+            case Oldest:
+                indexStart = 1;
+                indexEnd = Math.min(count, m_settings.m_limitMessagesCount);
+                break;
+            default:
+                throw new IllegalStateException("Invalid message selector");
+        }
+        return getUIDs(folder, Arrays.copyOfRange(messages, indexStart - 1, indexEnd));
+    }
+
+    /**
+     * Writes the given messages (and their attachments and headers, if enabled) to new tables, available via
+     * {@link #getMsgTable()}, {@link #getAttachTable()} and {@link #getHeaderTable()} afterwards.
+     *
+     * @param context the execution context
+     * @param folder the (read-write) folder the messages belong to
+     * @param messages the messages to write
+     * @throws Exception if the messages cannot be retrieved or written
+     */
+    public void writeMessages(final ExecutionContext context, final Folder folder, final Message[] messages)
+        throws Exception {
+        final var outputs = new BufferedOutputs(context);
+        writeMessages(context, folder, getUIDs(folder, messages), outputs.m_msgOutput, outputs.m_attachOutput,
+            outputs.m_headerOutput);
+        outputs.finish();
+    }
+
+    private void writeMessages(final ExecutionContext context, final Folder folder, final long[] uids,
+        final RowOutput msgOutput, final RowOutput attachOutput, final RowOutput headerOutput) throws Exception {
+        final BinaryObjectCellFactory factory = new BinaryObjectCellFactory(context);
+        // only modified by the fetcher, read after it has been joined
+        final LongStream.Builder previouslyUnreadUIDs = LongStream.builder();
+        final BlockingQueue<Future<Decoded>> pipeline = new ArrayBlockingQueue<>(PIPELINE_CAPACITY);
+        final var budget = new Semaphore(MAX_BUFFERED_BYTES);
+        // the messages fetched but not written yet, closed in the end if writing fails
+        final Set<FetchedMessage> inFlight = ConcurrentHashMap.newKeySet();
+        final ExecutorService decoders = Executors.newFixedThreadPool(DECODER_THREADS, r -> {
+            final var thread = new Thread(r, "KNIME-Email-Reader-Decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final var fetcher = new Thread(ThreadUtils.runnableWithContext(
+            () -> fetch(folder, uids, previouslyUnreadUIDs, new Pipeline(pipeline, budget, inFlight, decoders))),
+            "KNIME-Email-Reader-Fetcher");
+        fetcher.setDaemon(true);
+        fetcher.start();
+        try {
             long rowKey = 0;
             // the number of messages actually read/retrieved (e.g. 100 when only 100 are to be read)
-            final var messageCount = indexEnd - indexStart + 1;
-            for (int i = indexStart; i <= indexEnd;) {
-                final var indexOfMessage = i - indexStart + 1;
-                final var paddedNumber = "%" + Long.toString(messageCount).length() + "d";
-                final var messageTemplateBuilder = new StringBuilder();
-                // "Fetching message  12/100"
-                messageTemplateBuilder.append("Fetching message ");
-                messageTemplateBuilder.append(paddedNumber); // %d (from)
-                messageTemplateBuilder.append("/");
-                messageTemplateBuilder.append(paddedNumber); // %d (total)
-                context.setProgress((indexOfMessage - 1) / (double)messageCount,
-                    messageTemplateBuilder.toString().formatted(indexOfMessage, messageCount));
-                context.checkCanceled();
-                final Message message = messages[i - 1];
-                if (!message.isExpunged()) {
-                    if (!m_settings.m_markAsRead && !message.isSet(Flags.Flag.SEEN)) {
-                        //Store only the previously unread messages if they need to be reset later
-                        previouslyUnreadMessages.add(message);
+            final var messageCount = uids.length;
+            final var paddedNumber = "%" + Long.toString(messageCount).length() + "d";
+            // "Fetching message  12/100"
+            final var messageTemplate = "Fetching message " + paddedNumber + "/" + paddedNumber;
+            Decoded decoded;
+            while ((decoded = await(context, take(context, pipeline))) != null) {
+                context.setProgress(rowKey / (double)messageCount,
+                    messageTemplate.formatted(Math.min(rowKey + 1, messageCount), messageCount));
+                try {
+                    writeMessage(factory, RowKey.createRowKey(rowKey++), decoded.message(), msgOutput, attachOutput,
+                        headerOutput);
+                } finally {
+                    decoded.source().close();
+                    inFlight.remove(decoded.source());
+                }
+            }
+            fetcher.join();
+        } finally {
+            fetcher.interrupt();
+            decoders.shutdownNow();
+            inFlight.forEach(FetchedMessage::close);
+        }
+        //explicitly mark message as un-seen since they are automatically set to seen when content is
+        //downloaded https://jakarta.ee/specifications/mail/1.6/apidocs/javax/mail/flags.flag#SEEN
+        final var previouslyUnread =
+            new MessageWindows(folder, previouslyUnreadUIDs.build().toArray(), WINDOW_SIZE, null);
+        for (Message[] window; (window = previouslyUnread.next()) != null;) {
+            EmailUtil.flagMessages(folder, window, Flags.Flag.SEEN, false);
+        }
+        msgOutput.close();
+        if (m_settings.m_outputAttachments) {
+            attachOutput.close();
+        }
+        if (m_settings.m_outputHeaders) {
+            headerOutput.close();
+        }
+    }
+
+    /** A message decoded by the pipeline and the fetched message it was decoded from (to be closed once written). */
+    private record Decoded(DecodedMessage message, FetchedMessage source) {
+    }
+
+    /**
+     * The state shared by the stages of the pipeline: the queue of pending results (limiting the number of messages in
+     * flight), the budget of bytes that may be buffered in memory, the messages in flight and the decoders.
+     */
+    private record Pipeline(BlockingQueue<Future<Decoded>> queue, Semaphore budget, Set<FetchedMessage> inFlight,
+        ExecutorService decoders) {
+    }
+
+    /**
+     * First stage of the pipeline, run by a dedicated thread: fetches the messages in order (the connection is not
+     * shared between threads), hands them to the decoders and queues the pending results. The queue is terminated by a
+     * {@code null} result, or a failed one if fetching fails.
+     */
+    private void fetch(final Folder folder, final long[] uids, final LongStream.Builder previouslyUnreadUIDs,
+        final Pipeline pipeline) {
+        final boolean withAttachments = m_settings.m_outputAttachments;
+        final boolean withHeaders = m_settings.m_outputHeaders;
+        // everything but the content in a single round trip per window
+        final var fetchProfile = new FetchProfile();
+        fetchProfile.add(UIDFolder.FetchProfileItem.UID);
+        fetchProfile.add(FetchProfile.Item.FLAGS);
+        fetchProfile.add(IMAPFolder.FetchProfileItem.INTERNALDATE);
+        fetchProfile.add(IMAPFolder.FetchProfileItem.HEADERS);
+        fetchProfile.add(FetchProfile.Item.SIZE);
+        try {
+            try {
+                final var windows = new MessageWindows(folder, uids, WINDOW_SIZE, fetchProfile);
+                for (Message[] window; (window = windows.next()) != null;) {
+                    for (final Message message : window) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            return;
+                        }
+                        if (!message.isExpunged()) {
+                            if (!m_settings.m_markAsRead && !message.isSet(Flags.Flag.SEEN)) {
+                                //Store only the previously unread messages if they need to be reset later
+                                previouslyUnreadUIDs.add(windows.getUID(message));
+                            }
+                            final var messageId = EmailUtil.getMessageId(message);
+                            final var receivedDate = message.getReceivedDate();
+                            // decoding the downloaded message doesn't access the server anymore
+                            final var fetched = FetchedMessage.fetch(message, pipeline.budget());
+                            pipeline.inFlight().add(fetched);
+                            if (Thread.currentThread().isInterrupted()) { // the writer may not close it anymore
+                                fetched.close();
+                                return;
+                            }
+                            pipeline.queue().put(pipeline.decoders().submit(() -> new Decoded(MessageDecoder
+                                .decode(messageId, receivedDate, fetched.getMessage(), withAttachments, withHeaders),
+                                fetched)));
+                        }
                     }
-                    msgRowBuffer.setRowKey(RowKey.createRowKey(rowKey++));
-                    // message ID
-                    final var messageId = EmailUtil.getMessageId(message);
-                    writeMessageAndAttachments(context, factory, messageId, message, msgRowBuffer, attachWriteCursor, attachRowBuffer);
-                    writeHeader(messageId, message, headerWriteCursor, headerRowBuffer);
-                    msgWriteCursor.commit(msgRowBuffer);
                 }
-                i++;
+                pipeline.queue().put(CompletableFuture.completedFuture(null));
+            } catch (MessagingException | IOException | RuntimeException e) { // NOSONAR handed to the writer
+                pipeline.queue().put(CompletableFuture.failedFuture(e));
             }
-            if (!previouslyUnreadMessages.isEmpty()) {
-                //explicitly mark message as un-seen since they are automatically set to seen when content is
-                //downloaded https://jakarta.ee/specifications/mail/1.6/apidocs/javax/mail/flags.flag#SEEN
-                EmailUtil.flagMessages(folder, previouslyUnreadMessages.toArray(new Message[0]), Flags.Flag.SEEN, false);
+        } catch (InterruptedException e) { // NOSONAR the writer stopped, nobody waits for further results
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** @return the UIDs of the given messages, skipping expunged ones */
+    private static long[] getUIDs(final Folder folder, final Message[] messages) throws MessagingException {
+        final UIDFolder uidFolder = MessageWindows.asUIDFolder(folder);
+        final var fetchProfile = new FetchProfile();
+        fetchProfile.add(UIDFolder.FetchProfileItem.UID);
+        folder.fetch(messages, fetchProfile);
+        final LongStream.Builder uids = LongStream.builder();
+        for (final Message message : messages) {
+            if (!message.isExpunged()) {
+                uids.add(uidFolder.getUID(message));
             }
-            m_msgTable = msgRowContainer.finish();
-            m_attachTable = attachRowContainer.finish();
-            m_headerTable = headerRowContainer.finish();
+        }
+        return uids.build().toArray();
+    }
+
+    /** Takes the next pending result from the pipeline, checking for cancellation while waiting. */
+    private static Future<Decoded> take(final ExecutionContext context,
+        final BlockingQueue<Future<Decoded>> pipeline) throws CanceledExecutionException, InterruptedException {
+        Future<Decoded> next;
+        while ((next = pipeline.poll(CANCEL_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) == null) {
+            context.checkCanceled();
+        }
+        return next;
+    }
+
+    /** Waits for a pending result of the pipeline, checking for cancellation while waiting. */
+    private static Decoded await(final ExecutionContext context, final Future<Decoded> pending)
+        throws Exception {
+        while (true) {
+            context.checkCanceled();
+            try {
+                return pending.get(CANCEL_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) { // NOSONAR check for cancellation and wait again
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+    }
+
+    /** Last stage of the pipeline: writes a decoded message, its attachments and headers to the outputs. */
+    private void writeMessage(final BinaryObjectCellFactory factory, final RowKey rowKey, final DecodedMessage decoded,
+        final RowOutput msgOutput, final RowOutput attachOutput, final RowOutput headerOutput)
+        throws IOException, MessagingException, InterruptedException {
+        final var messageId = toCell(decoded.messageId());
+        for (final Attachment attachment : decoded.attachments()) {
+            // streamed from the fetched message into the cell (which is stored in the file store if large)
+            try (var is = attachment.part().getInputStream()) {
+                attachOutput.push(new DefaultRow(RowKey.createRowKey(m_attachmentCounter++), messageId,
+                    toCell(attachment.fileName()), factory.create(is)));
+            }
+        }
+        for (final Header header : decoded.headers()) {
+            headerOutput.push(new DefaultRow(RowKey.createRowKey(m_headerCounter++), messageId,
+                toCell(header.getName()), toCell(header.getValue())));
+        }
+        msgOutput.push(new DefaultRow(rowKey, decoded.cells()));
+    }
+
+    /** Buffered outputs for the three tables (empty if the respective output is disabled). */
+    private final class BufferedOutputs {
+
+        private final BufferedDataTableRowOutput m_msgOutput;
+
+        private final BufferedDataTableRowOutput m_attachOutput;
+
+        private final BufferedDataTableRowOutput m_headerOutput;
+
+        BufferedOutputs(final ExecutionContext context) {
+            m_msgOutput = new BufferedDataTableRowOutput(context.createDataContainer(getMsgSpec(false)));
+            m_attachOutput = new BufferedDataTableRowOutput(context.createDataContainer(ATTACH_TABLE_SPEC));
+            m_headerOutput = new BufferedDataTableRowOutput(context.createDataContainer(HEADER_TABLE_SPEC));
+        }
+
+        void finish() throws InterruptedException {
+            // closing a closed output has no effect
+            m_attachOutput.close();
+            m_headerOutput.close();
+            m_msgTable = m_msgOutput.getDataTable();
+            m_attachTable = m_attachOutput.getDataTable();
+            m_headerTable = m_headerOutput.getDataTable();
         }
     }
 
@@ -271,21 +529,6 @@ private SearchTerm buildSearchTerm() {
         return new AndTerm(terms);
     }
 
-    private void writeHeader(final String messageId, final Message message, final RowWriteCursor headerWriteCursor, final RowBuffer headerRowBuffer)
-        throws MessagingException {
-        if (m_settings.m_outputHeaders) {
-            final Enumeration<Header> allHeaders = message.getAllHeaders();
-            while (allHeaders.hasMoreElements()) {
-                final Header header = allHeaders.nextElement();
-                headerRowBuffer.setRowKey(RowKey.createRowKey(m_headerCounter++));
-                headerRowBuffer.<StringWriteValue> getWriteValue(0).setStringValue(messageId);
-                headerRowBuffer.<StringWriteValue> getWriteValue(1).setStringValue(header.getName());
-                headerRowBuffer.<StringWriteValue> getWriteValue(2).setStringValue(header.getValue());
-                headerWriteCursor.commit(headerRowBuffer);
-            }
-        }
-    }
-
     /**
      * @return the msgTable
      */
@@ -306,133 +549,4 @@ public BufferedDataTable getAttachTable() {
     public BufferedDataTable getHeaderTable() {
         return m_headerTable;
     }
-
-    private void writeMessageAndAttachments(final ExecutionContext context, final BinaryObjectCellFactory factory,
-        final String messageId, final Message message, final RowWrite rowWrite, final RowWriteCursor attachWriteCurser,
-        final RowBuffer attachRowBuffer) throws MessagingException, IOException, CanceledExecutionException {
-        var index = 0;
-
-        // message id
-        rowWrite.<StringWriteValue> getWriteValue(index++).setStringValue(messageId);
-
-        // received when
-        final var receivedDate = message.getReceivedDate();
-        if (receivedDate == null) {
-            rowWrite.setMissing(index++);
-        } else {
-            final var receivedWhen = receivedDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
-            rowWrite.<LocalDateTimeWriteValue> getWriteValue(index++).setLocalDateTime(receivedWhen);
-        }
-
-        // subject
-        rowWrite.<StringWriteValue> getWriteValue(index++).setStringValue(message.getSubject());
-
-        // part
-        final StringBuilder textBuf = new StringBuilder();
-        final StringBuilder htmlBuf = new StringBuilder();
-        writePart(context, factory, messageId, textBuf, htmlBuf, message, attachWriteCurser, attachRowBuffer);
-        if (textBuf.isEmpty()) {
-            rowWrite.setMissing(index++);
-        } else {
-            rowWrite.<StringWriteValue> getWriteValue(index++).setStringValue(textBuf.toString());
-        }
-        if (htmlBuf.isEmpty()) {
-            rowWrite.setMissing(index++);
-        } else {
-            rowWrite.<WriteValue<DataCell>> getWriteValue(index++)
-                .setValue(HTMLCellFactory.INSTANCE.createCell(htmlBuf.toString()));
-        }
-
-        // from
-        final var from = Optional.ofNullable(message.getFrom()).stream().flatMap(Arrays::stream).findFirst()
-            .map(Address::toString).orElse(null);
-        rowWrite.<StringWriteValue> getWriteValue(index++).setStringValue(from);
-
-        // TO
-        final String[] to = EmailUtil.extractRecipients(message, RecipientType.TO);
-        if (to == null) {
-            rowWrite.setMissing(index++);
-        } else {
-            rowWrite.<StringListWriteValue> getWriteValue(index++).setValue(to);
-        }
-
-        // CC
-        final String[] cc = EmailUtil.extractRecipients(message, RecipientType.CC);
-        if (cc == null) {
-            rowWrite.setMissing(index++);
-        } else {
-            rowWrite.<StringListWriteValue> getWriteValue(index++).setValue(cc);
-        }
-    }
-
-    private void writePart(final ExecutionContext context, final BinaryObjectCellFactory factory,
-        final String messageId, final StringBuilder textBuf, final StringBuilder htmlBuf, final Part p,
-        final RowWriteCursor attachWriteCurser, final RowBuffer attachRowBuffer)
-        throws MessagingException, IOException, CanceledExecutionException {
-        context.checkCanceled();
-        //check if the content is plain text
-        if (p.isMimeType("text/plain")) {
-            if (isAttachment(p)) {
-                writeAttachment(factory, messageId, attachWriteCurser, attachRowBuffer, p);
-            } else { //and no attachment
-                textBuf.append((String)p.getContent());
-            }
-        //check if the content is plain text
-        } else if (p.isMimeType("text/html")) {
-            if (isAttachment(p)) {
-                writeAttachment(factory, messageId, attachWriteCurser, attachRowBuffer, p);
-            } else { //and no attachment
-                htmlBuf.append((String)p.getContent());
-            }
-        //check if the content is a multipart
-        } else if (p.isMimeType("multipart/*")) {
-            Multipart mp = (Multipart)p.getContent();
-            int count = mp.getCount();
-            for (int i = 0; i < count; i++) {
-                writePart(context, factory, messageId, textBuf, htmlBuf, mp.getBodyPart(i), attachWriteCurser, attachRowBuffer);
-            }
-        //check if the content is a nested message
-        } else if (p.isMimeType("message/rfc822")) {
-            writePart(context, factory, messageId, textBuf, htmlBuf, (Part)p.getContent(), attachWriteCurser, attachRowBuffer);
-        //check if the content is a attached file
-        } else if (isAttachment(p)) {
-            writeAttachment(factory, messageId, attachWriteCurser, attachRowBuffer, p);
-        //fallback for all other message parts we do not know
-        } else {
-            final Object o = p.getContent();
-            if (o instanceof String) {
-                textBuf.append((String)o);
-            } else if (o instanceof InputStream is) {
-                try (is) {
-                    int c;
-                    while ((c = is.read()) != -1) {
-                        textBuf.append(c);
-                    }
-                }
-            }
-        }
-    }
-
-    private static boolean isAttachment(final Part p) throws MessagingException {
-        if (p instanceof MimeBodyPart mp) {
-            final String fileName = mp.getFileName();
-            return fileName != null && !fileName.isBlank();
-        }
-        return false;
-    }
-
-    private void writeAttachment(final BinaryObjectCellFactory factory, final String messageId,
-        final RowWriteCursor attachWriteCurser, final RowBuffer attachRowBuffer, final Part p) throws MessagingException, IOException {
-        if (m_settings.m_outputAttachments) {
-            if (p instanceof MimeBodyPart mp) {
-                try (var is = mp.getInputStream()) {
-                    attachRowBuffer.setRowKey(RowKey.createRowKey(m_attachmentCounter++));
-                    attachRowBuffer.<StringWriteValue> getWriteValue(0).setStringValue(messageId);
-                    attachRowBuffer.<StringWriteValue> getWriteValue(1).setStringValue(mp.getFileName());
-                    attachRowBuffer.<WriteValue<DataCell>> getWriteValue(2).setValue(factory.create(is));
-                    attachWriteCurser.commit(attachRowBuffer);
-                }
-            }
-        }
-    }
 }
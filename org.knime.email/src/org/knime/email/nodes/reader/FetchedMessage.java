@@ -0,0 +1,202 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.reader;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.knime.core.util.FileUtil;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.SharedByteArrayInputStream;
+import jakarta.mail.util.SharedFileInputStream;
+
+/**
+ * A message downloaded completely, so that it can be decoded without accessing the server. Small messages are buffered
+ * in memory, in an array of their announced size that is accounted for in a budget shared by all messages in flight;
+ * larger ones (or messages of unknown or wrongly announced size) are written to a temporary file. The message is
+ * parsed from a shared input stream, i.e. the content of its parts (e.g. attachments) is read from the buffer or file
+ * when needed rather than copied.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class FetchedMessage implements AutoCloseable {
+
+    /** Messages up to this size (in bytes) are buffered in memory, larger ones in a temporary file. */
+    static final int MAX_IN_MEMORY_SIZE = 1 << 20;
+
+    private final MimeMessage m_message;
+
+    private final InputStream m_in;
+
+    private final File m_file;
+
+    private final Semaphore m_budget;
+
+    private final int m_bufferedBytes;
+
+    private boolean m_closed;
+
+    private FetchedMessage(final InputStream in, final File file, final Semaphore budget, final int bufferedBytes)
+        throws MessagingException {
+        m_message = new MimeMessage((Session)null, in);
+        m_in = in;
+        m_file = file;
+        m_budget = budget;
+        m_bufferedBytes = bufferedBytes;
+    }
+
+    /**
+     * Downloads the given message.
+     *
+     * @param message the message, its size should have been fetched already
+     * @param budget the number of bytes that may (still) be buffered in memory, acquired until the returned message is
+     *            closed; must allow for at least {@link #MAX_IN_MEMORY_SIZE} bytes
+     * @return the downloaded message, to be closed once no longer used
+     * @throws MessagingException if the message cannot be retrieved
+     * @throws IOException if the message cannot be written to the temporary file
+     * @throws InterruptedException if interrupted while waiting for the budget
+     */
+    static FetchedMessage fetch(final Message message, final Semaphore budget)
+        throws MessagingException, IOException, InterruptedException {
+        final int size = message.getSize();
+        if (size >= 0 && size <= MAX_IN_MEMORY_SIZE) {
+            budget.acquire(size);
+            try {
+                final var buffer = new FixedSizeOutputStream(size);
+                message.writeTo(buffer);
+                return new FetchedMessage(buffer.toInputStream(), null, budget, size);
+            } catch (SizeExceededException e) { // NOSONAR the message is written to a file instead
+                budget.release(size);
+            } catch (MessagingException | IOException | RuntimeException e) {
+                budget.release(size);
+                throw e;
+            }
+        }
+        final File file = FileUtil.createTempFile("email-reader-message", ".eml");
+        InputStream in = null;
+        try {
+            try (final var out = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+                message.writeTo(out);
+            }
+            in = new SharedFileInputStream(file);
+            return new FetchedMessage(in, file, budget, 0);
+        } catch (MessagingException | IOException | RuntimeException e) {
+            IOUtils.closeQuietly(in);
+            FileUtils.deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    /** Thrown if a message is larger than its announced size. */
+    private static final class SizeExceededException extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Writes into an array of the announced message size, so that the input stream can share it without copying.
+     */
+    private static final class FixedSizeOutputStream extends OutputStream {
+
+        private final byte[] m_buffer;
+
+        private int m_count;
+
+        FixedSizeOutputStream(final int size) {
+            m_buffer = new byte[size];
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (m_count == m_buffer.length) {
+                throw new SizeExceededException();
+            }
+            m_buffer[m_count++] = (byte)b;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (len > m_buffer.length - m_count) {
+                throw new SizeExceededException();
+            }
+            System.arraycopy(b, off, m_buffer, m_count, len);
+            m_count += len;
+        }
+
+        SharedByteArrayInputStream toInputStream() {
+            return new SharedByteArrayInputStream(m_buffer, 0, m_count);
+        }
+    }
+
+    /** @return the parsed message */
+    MimeMessage getMessage() {
+        return m_message;
+    }
+
+    /** Releases the buffer, respectively deletes the temporary file; can be called multiple times. */
+    @Override
+    public synchronized void close() {
+        if (!m_closed) {
+            m_closed = true;
+            IOUtils.closeQuietly(m_in);
+            FileUtils.deleteQuietly(m_file);
+            m_budget.release(m_bufferedBytes);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.collection.CollectionCellFactory;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.html.HTMLCellFactory;
+import org.knime.core.data.time.localdatetime.LocalDateTimeCellFactory;
+import org.knime.email.util.EmailUtil;
+
+import jakarta.mail.Address;
+import jakarta.mail.Header;
+import jakarta.mail.Message;
+import jakarta.mail.Message.RecipientType;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.internet.MimeBodyPart;
+
+/**
+ * Decodes a (fetched) message into the cells of the Email Reader's tables: MIME structure, text and HTML bodies,
+ * attachments and headers. Decoding doesn't depend on any state of the reader, so that messages can be decoded
+ * concurrently (see {@link EmailReaderNodeProcessor}); creating cells that need the execution context (attachments) is
+ * left to the caller.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class MessageDecoder {
+
+    /**
+     * An attachment of a message, its content is not read (copied) while decoding but streamed by the caller.
+     *
+     * @param fileName the name of the attached file
+     * @param part the part holding the attachment, see {@link MimeBodyPart#getInputStream()}
+     */
+    record Attachment(String fileName, MimeBodyPart part) {
+    }
+
+    /**
+     * A decoded message.
+     *
+     * @param messageId the ID of the message
+     * @param cells the cells of the message row
+     * @param attachments the attachments, empty if not requested
+     * @param headers the headers (name and value), empty if not requested
+     */
+    record DecodedMessage(String messageId, DataCell[] cells, List<Attachment> attachments, List<Header> headers) {
+    }
+
+    private MessageDecoder() {
+        // utility class
+    }
+
+    /**
+     * @param messageId the ID of the message
+     * @param receivedDate the date the message was received, {@code null} if unknown
+     * @param message the message to decode
+     * @param withAttachments whether to decode the attachments
+     * @param withHeaders whether to decode the headers
+     * @return the decoded message
+     * @throws MessagingException if the message cannot be parsed
+     * @throws IOException if the content of the message cannot be read
+     */
+    static DecodedMessage decode(final String messageId, final Date receivedDate, final Message message,
+        final boolean withAttachments, final boolean withHeaders) throws MessagingException, IOException {
+        // received when
+        final DataCell receivedWhen = receivedDate == null ? DataType.getMissingCell() : LocalDateTimeCellFactory
+            .create(receivedDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
+
+        // part
+        final StringBuilder textBuf = new StringBuilder();
+        final StringBuilder htmlBuf = new StringBuilder();
+        final List<Attachment> attachments = new ArrayList<>();
+        decodePart(textBuf, htmlBuf, message, withAttachments ? attachments : null);
+        final DataCell text = textBuf.isEmpty() ? DataType.getMissingCell() : new StringCell(textBuf.toString());
+        final DataCell html =
+            htmlBuf.isEmpty() ? DataType.getMissingCell() : HTMLCellFactory.INSTANCE.createCell(htmlBuf.toString());
+
+        // from
+        final var from = Optional.ofNullable(message.getFrom()).stream().flatMap(Arrays::stream).findFirst()
+            .map(Address::toString).orElse(null);
+
+        final DataCell[] cells = new DataCell[]{ //
+            toCell(messageId), //
+            receivedWhen, //
+            toCell(message.getSubject()), //
+            text, //
+            html, //
+            toCell(from), //
+            toListCell(EmailUtil.extractRecipients(message, RecipientType.TO)), //
+            toListCell(EmailUtil.extractRecipients(message, RecipientType.CC))};
+
+        final List<Header> headers = new ArrayList<>();
+        if (withHeaders) {
+            final Enumeration<Header> allHeaders = message.getAllHeaders();
+            while (allHeaders.hasMoreElements()) {
+                headers.add(allHeaders.nextElement());
+            }
+        }
+        return new DecodedMessage(messageId, cells, attachments, headers);
+    }
+
+    static DataCell toCell(final String value) {
+        return value == null ? DataType.getMissingCell() : new StringCell(value);
+    }
+
+    private static DataCell toListCell(final String[] values) {
+        return values == null ? DataType.getMissingCell()
+            : CollectionCellFactory.createListCell(Arrays.stream(values).map(StringCell::new).toList());
+    }
+
+    /** Appends the text and HTML of the given part to the buffers, attachments to the list (if not null). */
+    private static void decodePart(final StringBuilder textBuf, final StringBuilder htmlBuf, final Part p,
+        final List<Attachment> attachments) throws MessagingException, IOException {
+        //check if the content is plain text
+        if (p.isMimeType("text/plain")) {
+            if (isAttachment(p)) {
+                addAttachment(attachments, p);
+            } else { //and no attachment
+                textBuf.append((String)p.getContent());
+            }
+        //check if the content is plain text
+        } else if (p.isMimeType("text/html")) {
+            if (isAttachment(p)) {
+                addAttachment(attachments, p);
+            } else { //and no attachment
+                htmlBuf.append((String)p.getContent());
+            }
+        //check if the content is a multipart
+        } else if (p.isMimeType("multipart/*")) {
+            Multipart mp = (Multipart)p.getContent();
+            int count = mp.getCount();
+            for (int i = 0; i < count; i++) {
+                decodePart(textBuf, htmlBuf, mp.getBodyPart(i), attachments);
+            }
+        //check if the content is a nested message
+        } else if (p.isMimeType("message/rfc822")) {
+            decodePart(textBuf, htmlBuf, (Part)p.getContent(), attachments);
+        //check if the content is a attached file
+        } else if (isAttachment(p)) {
+            addAttachment(attachments, p);
+        //fallback for all other message parts we do not know
+        } else {
+            final Object o = p.getContent();
+            if (o instanceof String) {
+                textBuf.append((String)o);
+            } else if (o instanceof InputStream is) {
+                try (is) {
+                    int c;
+                    while ((c = is.read()) != -1) {
+                        textBuf.append(c);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isAttachment(final Part p) throws MessagingException {
+        if (p instanceof MimeBodyPart mp) {
+            final String fileName = mp.getFileName();
+            return fileName != null && !fileName.isBlank();
+        }
+        return false;
+    }
+
+    private static void addAttachment(final List<Attachment> attachments, final Part p) throws MessagingException {
+        if (attachments != null && p instanceof MimeBodyPart mp) {
+            attachments.add(new Attachment(mp.getFileName(), mp));
+        }
+    }
+}
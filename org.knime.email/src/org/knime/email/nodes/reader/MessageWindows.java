@@ -0,0 +1,151 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.reader;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.eclipse.angus.mail.imap.IMAPMessage;
+
+import jakarta.mail.FetchProfile;
+import jakarta.mail.Folder;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.UIDFolder;
+
+/**
+ * Retrieves the messages with the given UIDs window by window, so that only the UIDs of the messages need to be kept.
+ * The folder keeps the message objects of all messages accessed until it is closed, including what has been fetched
+ * for them (headers, envelope, structure, flags); the messages of a window are therefore released when the next window
+ * is retrieved, so that the memory used doesn't depend on the number of messages.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class MessageWindows {
+
+    private final Folder m_folder;
+
+    private final UIDFolder m_uidFolder;
+
+    private final long[] m_uids;
+
+    private final int m_windowSize;
+
+    private final FetchProfile m_fetchProfile;
+
+    private final Consumer<Message> m_release;
+
+    private int m_next;
+
+    private Message[] m_current = new Message[0];
+
+    /**
+     * @param folder the open folder
+     * @param uids the UIDs of the messages, in the order to retrieve them
+     * @param windowSize the (maximum) number of messages per window
+     * @param fetchProfile the items to fetch for the messages of a window in one round trip, {@code null} if none
+     * @throws MessagingException if the folder doesn't support UIDs
+     */
+    MessageWindows(final Folder folder, final long[] uids, final int windowSize, final FetchProfile fetchProfile)
+        throws MessagingException {
+        this(folder, uids, windowSize, fetchProfile, MessageWindows::invalidate);
+    }
+
+    /** As above, with the function releasing what has been fetched for a message (to observe it in tests). */
+    MessageWindows(final Folder folder, final long[] uids, final int windowSize, final FetchProfile fetchProfile,
+        final Consumer<Message> release) throws MessagingException {
+        m_folder = folder;
+        m_uidFolder = asUIDFolder(folder);
+        m_uids = uids;
+        m_windowSize = windowSize;
+        m_fetchProfile = fetchProfile;
+        m_release = release;
+    }
+
+    static UIDFolder asUIDFolder(final Folder folder) throws MessagingException {
+        if (folder instanceof UIDFolder uidFolder) {
+            return uidFolder;
+        }
+        throw new MessagingException("Folder \"%s\" doesn't support UIDs".formatted(folder.getFullName()));
+    }
+
+    /**
+     * Releases the messages of the current window and retrieves the next one.
+     *
+     * @return the (still existing) messages of the next window, {@code null} if there are no more windows
+     * @throws MessagingException if the messages cannot be retrieved
+     */
+    Message[] next() throws MessagingException {
+        Arrays.stream(m_current).forEach(m_release);
+        m_current = new Message[0];
+        if (m_next >= m_uids.length) {
+            return null;
+        }
+        final long[] window = Arrays.copyOfRange(m_uids, m_next, Math.min(m_next + m_windowSize, m_uids.length));
+        m_next += window.length;
+        m_current = Arrays.stream(m_uidFolder.getMessagesByUID(window)).filter(Objects::nonNull)
+            .toArray(Message[]::new);
+        if (m_fetchProfile != null) {
+            m_folder.fetch(m_current, m_fetchProfile);
+        }
+        return m_current;
+    }
+
+    /** @return the UID of the given message of the current window */
+    long getUID(final Message message) throws MessagingException {
+        return m_uidFolder.getUID(message);
+    }
+
+    private static void invalidate(final Message message) {
+        if (message instanceof IMAPMessage imapMessage) {
+            imapMessage.invalidateHeaders();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.collection.CollectionCellFactory;
+import org.knime.core.data.collection.ListCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+
+import jakarta.mail.Address;
+import jakarta.mail.SendFailedException;
+
+/**
+ * Outcome of the delivery of one message (envelope) to the SMTP server, reported in the optional output table of the
+ * Email Sender. Timings are measured for the individual stages of a send: connecting to the server, rendering the
+ * message (recipients and body, incl. report), adding the attachments and transferring the message.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class DeliveryResult {
+
+    /** Spec of the delivery results table. */
+    static final DataTableSpec SPEC = new DataTableSpecCreator() //
+        .addColumns(new DataColumnSpecCreator("Accepted Recipients", ListCell.getCollectionType(StringCell.TYPE))
+            .createSpec()) //
+        .addColumns(new DataColumnSpecCreator("Rejected Recipients", ListCell.getCollectionType(StringCell.TYPE))
+            .createSpec()) //
+        .addColumns(new DataColumnSpecCreator("Server Reply", StringCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator("Message Size", LongCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator("Retries", IntCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator("SMTP Extensions", ListCell.getCollectionType(StringCell.TYPE))
+            .createSpec()) //
+        .addColumns(new DataColumnSpecCreator("Connect Time (ms)", LongCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator("Render Time (ms)", LongCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator("Attach Time (ms)", LongCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator("Send Time (ms)", LongCell.TYPE).createSpec()) //
+        .addColumns(new DataColumnSpecCreator("Total Time (ms)", LongCell.TYPE).createSpec()) //
+        .createSpec();
+
+    private final long m_startMillis = System.currentTimeMillis();
+
+    private final List<String> m_acceptedRecipients = new ArrayList<>();
+
+    private final List<String> m_rejectedRecipients = new ArrayList<>();
+
+    private String m_serverReply;
+
+    private long m_messageSize = -1;
+
+    private int m_retryCount;
+
+    private List<String> m_extensions = List.of();
+
+    private long m_connectMillis;
+
+    private long m_renderMillis;
+
+    private long m_attachMillis;
+
+    private long m_sendMillis;
+
+    private long m_totalMillis;
+
+    /** @param recipients all recipients of a successfully delivered message */
+    void setAccepted(final Address[] recipients) {
+        m_acceptedRecipients.clear();
+        m_rejectedRecipients.clear();
+        addAll(m_acceptedRecipients, recipients);
+    }
+
+    /** @param e the exception listing the (in)valid addresses of a (partially) failed delivery */
+    void setFailed(final SendFailedException e) {
+        m_acceptedRecipients.clear();
+        m_rejectedRecipients.clear();
+        addAll(m_acceptedRecipients, e.getValidSentAddresses());
+        addAll(m_rejectedRecipients, e.getInvalidAddresses());
+        addAll(m_rejectedRecipients, e.getValidUnsentAddresses());
+    }
+
+    private static void addAll(final List<String> list, final Address[] addresses) {
+        if (addresses != null) {
+            Stream.of(addresses).map(Address::toString).forEach(list::add);
+        }
+    }
+
+    /** @return the rejected recipients */
+    List<String> getRejectedRecipients() {
+        return m_rejectedRecipients;
+    }
+
+    void setServerReply(final String serverReply) {
+        m_serverReply = serverReply;
+    }
+
+    void setMessageSize(final long messageSize) {
+        m_messageSize = messageSize;
+    }
+
+    void setRetryCount(final int retryCount) {
+        m_retryCount = retryCount;
+    }
+
+    /** @return number of retries needed to deliver the message */
+    int getRetryCount() {
+        return m_retryCount;
+    }
+
+    /** @param extensions the SMTP extensions (affecting the transfer encoding) used for sending */
+    void setExtensions(final List<String> extensions) {
+        m_extensions = extensions;
+    }
+
+    void setConnectMillis(final long connectMillis) {
+        m_connectMillis = connectMillis;
+    }
+
+    void setRenderMillis(final long renderMillis) {
+        m_renderMillis = renderMillis;
+    }
+
+    void setAttachMillis(final long attachMillis) {
+        m_attachMillis = attachMillis;
+    }
+
+    void setSendMillis(final long sendMillis) {
+        m_sendMillis = sendMillis;
+    }
+
+    /**
+     * Sets the total time, measured from creation of this object.
+     *
+     * @return this
+     */
+    DeliveryResult finish() {
+        m_totalMillis = System.currentTimeMillis() - m_startMillis;
+        return this;
+    }
+
+    /**
+     * @param index the row index
+     * @return the row representing this result, as per {@link #SPEC}
+     */
+    DataRow toRow(final long index) {
+        return new DefaultRow(RowKey.createRowKey(index), //
+            toListCell(m_acceptedRecipients), //
+            toListCell(m_rejectedRecipients), //
+            m_serverReply == null ? DataType.getMissingCell() : new StringCell(m_serverReply), //
+            m_messageSize < 0 ? DataType.getMissingCell() : new LongCell(m_messageSize), //
+            new IntCell(m_retryCount), //
+            toListCell(m_extensions), //
+            new LongCell(m_connectMillis), //
+            new LongCell(m_renderMillis), //
+            new LongCell(m_attachMillis), //
+            new LongCell(m_sendMillis), //
+            new LongCell(m_totalMillis));
+    }
+
+    private static DataCell toListCell(final List<String> values) {
+        return CollectionCellFactory.createListCell(values.stream().map(StringCell::new).toList());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sender;
+
+import org.apache.commons.lang3.StringUtils;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.util.CheckUtils;
+import org.knime.node.parameters.Widget;
+import org.knime.node.parameters.WidgetGroup;
+import org.knime.node.parameters.migration.Migrate;
+import org.knime.node.parameters.persistence.Persistable;
+import org.knime.node.parameters.updates.Effect;
+import org.knime.node.parameters.updates.Effect.EffectType;
+import org.knime.node.parameters.updates.ValueReference;
+import org.knime.node.parameters.updates.util.BooleanReference;
+import org.knime.node.parameters.widget.number.NumberInputWidget;
+import org.knime.node.parameters.widget.number.NumberInputWidgetValidation.MinValidation.IsNonNegativeValidation;
+import org.knime.node.parameters.widget.number.NumberInputWidgetValidation.MinValidation.IsPositiveIntegerValidation;
+
+/**
+ * Settings controlling how a message is delivered to the SMTP server, and whether a copy is saved (advanced).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("restriction")
+final class DeliverySettings implements WidgetGroup, Persistable {
+
+    /** The maximum delay before a retry (one hour). */
+    static final long MAX_RETRY_DELAY_MILLIS = 60L * 60 * 1000;
+
+    @Widget(title = "Retries on transient failures", advanced = true, description = """
+            The number of times sending is retried if it fails due to a transient problem, such as a connection or
+            read timeout, a connection reset or a temporary (4xx) reply of the SMTP server. Permanent failures (e.g.
+            authentication failures or rejected recipients) are not retried. If a timeout occurs after the message
+            was transferred, the server may have accepted it nonetheless, hence retries may result in duplicate
+            messages. Set to 0 to fail on the first error. Retries happen while the node executes, messages are not
+            queued for a later delivery.""")
+    @NumberInputWidget(minValidation = IsNonNegativeValidation.class)
+    @Migrate(loadDefaultIfAbsent = true)
+    int m_retryCount;
+
+    @Widget(title = "Initial retry delay (seconds)", advanced = true, description = """
+            The time to wait before the first retry. The delay doubles with each subsequent retry (exponential
+            backoff), up to one hour.""")
+    @NumberInputWidget(minValidation = IsPositiveIntegerValidation.class)
+    @Migrate(loadDefaultIfAbsent = true)
+    int m_retryDelaySeconds = 5;
+
+    @Widget(title = "Maximum recipients per message", advanced = true, description = """
+            The maximum number of recipients (To, CC and BCC) per message envelope. Many servers limit the number of
+            recipients of a single message (e.g. 500). If the message has more recipients, it is sent repeatedly,
+            each time to a subset of the recipients (the message itself, incl. its To and CC header, is the same for
+            all). Set to 0 to send a single message to all recipients.""")
+    @NumberInputWidget(minValidation = IsNonNegativeValidation.class)
+    @Migrate(loadDefaultIfAbsent = true)
+    int m_maxRecipientsPerMessage;
+
+    static final class SaveSentCopyRef implements BooleanReference {
+    }
+
+    @Widget(title = "Save copy to folder", advanced = true, description = """
+            If enabled, a copy of each sent email (incl. its BCC header) is saved to the given folder of the incoming
+            (IMAP) server, e.g. to the 'Sent' folder. This requires the upstream connector to be configured for both,
+            incoming and outgoing connections. The copy is saved while any further envelopes are being sent, the IMAP
+            connection is reused for subsequent executions of the node (e.g. in a loop).""")
+    @ValueReference(SaveSentCopyRef.class)
+    @Migrate(loadDefaultIfAbsent = true)
+    boolean m_saveSentCopy;
+
+    @Widget(title = "Folder", advanced = true,
+        description = "The full path of the folder to save the sent emails to, e.g. 'Sent' or Folder.Subfolder.")
+    @Effect(predicate = SaveSentCopyRef.class, type = EffectType.SHOW)
+    @Migrate(loadDefaultIfAbsent = true)
+    String m_sentFolder = "Sent";
+
+    void validate() throws InvalidSettingsException {
+        CheckUtils.checkSetting(m_retryCount >= 0, "Number of retries must not be negative: %d", m_retryCount);
+        CheckUtils.checkSetting(m_retryDelaySeconds > 0, "Retry delay must be positive: %d", m_retryDelaySeconds);
+        CheckUtils.checkSetting(m_maxRecipientsPerMessage >= 0,
+            "Maximum number of recipients per message must not be negative: %d", m_maxRecipientsPerMessage);
+        CheckUtils.checkSetting(!m_saveSentCopy || StringUtils.isNotBlank(m_sentFolder),
+            "The folder to save sent emails to must not be empty");
+    }
+
+    /**
+     * @param retry the index of the retry (0 for the first retry)
+     * @return the delay before that retry in milliseconds, doubling with each retry (capped at one hour)
+     */
+    long getRetryDelayMillis(final int retry) {
+        final long initialDelay = Math.min(m_retryDelaySeconds * 1000L, MAX_RETRY_DELAY_MILLIS);
+        // the initial delay is below 2^22, doubling it 32 times exceeds the maximum without overflowing
+        return retry >= 32 ? MAX_RETRY_DELAY_MILLIS : Math.min(initialDelay << retry, MAX_RETRY_DELAY_MILLIS);
+    }
+}
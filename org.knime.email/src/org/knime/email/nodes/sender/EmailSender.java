@@ -46,65 +46,85 @@
  */
 package org.knime.email.nodes.sender;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.SocketException;
 import java.net.SocketTimeoutException;
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPTransport;
+import org.eclipse.angus.mail.util.MailConnectException;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.knime.base.util.flowvariable.FlowVariableProvider;
-import org.knime.base.util.flowvariable.FlowVariableResolver;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.KNIMEException;
+import org.knime.core.node.NodeLogger;
 import org.knime.core.node.port.report.IReportPortObject;
 import org.knime.core.node.util.CheckUtils;
 import org.knime.core.util.FileUtil;
 import org.knime.core.util.Pointer;
 import org.knime.email.nodes.sender.MessageSettings.Attachment;
 import org.knime.email.nodes.sender.MessageSettings.EMailFormat;
-import org.knime.email.nodes.sender.MessageUtil.DocumentAndContentType;
+import org.knime.email.nodes.sender.MessageTemplate.RenderedMessage;
 import org.knime.email.session.EmailOutgoingSession;
 import org.knime.email.session.EmailSessionKey;
 import org.knime.filehandling.core.connections.FSConnection;
 import org.knime.filehandling.core.connections.FSFileSystem;
 import org.knime.filehandling.core.connections.FSLocation;
 import org.knime.filehandling.core.connections.FSPath;
-import org.knime.filehandling.core.connections.uriexport.URIExporterIDs;
-import org.knime.filehandling.core.connections.uriexport.noconfig.NoConfigURIExporterFactory;
 import org.knime.filehandling.core.defaultnodesettings.FileSystemHelper;
 import org.knime.filehandling.core.defaultnodesettings.filechooser.reader.FileFilterStatistic;
 import org.knime.filehandling.core.defaultnodesettings.filechooser.reader.ReadPathAccessor;
 import org.knime.filehandling.core.defaultnodesettings.status.StatusMessage;
 import org.knime.reporting2.nodes.htmlwriter.ReportHtmlImageHandler;
 import org.knime.reporting2.nodes.htmlwriter.ReportHtmlWriterUtils;
-import org.owasp.html.HtmlPolicyBuilder;
-import org.owasp.html.PolicyFactory;
 
 import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
 
+import jakarta.activation.DataHandler;
 import jakarta.activation.FileTypeMap;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
 import jakarta.mail.Message;
 import jakarta.mail.MessagingException;
 import jakarta.mail.Multipart;
 import jakarta.mail.Part;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
 import jakarta.mail.Transport;
 import jakarta.mail.internet.AddressException;
 import jakarta.mail.internet.InternetAddress;
@@ -113,6 +133,7 @@
 import jakarta.mail.internet.MimeMultipart;
 import jakarta.mail.internet.MimeUtility;
 import jakarta.mail.internet.PreencodedMimeBodyPart;
+import jakarta.mail.util.SharedFileInputStream;
 
 /**
  * Sends emails via jakarta mail API. It's an adaption (copy) of class
@@ -122,38 +143,43 @@
  */
 final class EmailSender {
 
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(EmailSender.class);
+
     /**
      * A system property that, if set, will disallow emails sent to recipients other than specified in a comma separate
      * list. For instance-D{@value #PROPERTY_ALLOWED_RECIPIENT_DOMAINS}=foo.com,bar.org would allow only emails to be
-     * sent to foo.com and bar.org. If other recipients are specified the node will fail during execution. If this
-     * property is not specified or empty all domains are allowed.
+     * sent to foo.com and bar.org (and their subdomains). If other recipients are specified the node will fail during
+     * execution. If this property is not specified or empty all domains are allowed. See {@link RecipientDomainPolicy}
+     * for the supported syntax.
      */
     public static final String PROPERTY_ALLOWED_RECIPIENT_DOMAINS = "knime.sendmail.allowed_domains";
 
-    /**
-     * Message body is sanitized, currently a copy of the policy defined in
-     * {@link org.knime.core.data.html.HTMLValueRenderer}, see also UIEXT-1672.
-     */
-    private static final PolicyFactory POLICY = new HtmlPolicyBuilder()
-            .allowCommonInlineFormattingElements()
-            .allowStandardUrlProtocols()
-            .allowCommonBlockElements()
-            .allowStyling()
-            .allowElements("a", "hr", "pre", "code")
-            .allowAttributes("href").onElements("a")
-            .toFactory();
-
     private final EmailSenderNodeSettings m_settings;
 
     private final EmailSessionKey m_emailSessionKey;
 
+    private final MessageTemplate m_messageTemplate;
+
     private IReportPortObject m_reportPortObject;
 
-    private FSLocation[] m_attachmentsFromInputColumn;
+    private List<InputAttachment> m_attachmentsFromInputColumn;
+
+    private boolean m_isReportDeliveryResults;
 
     EmailSender(final EmailSessionKey emailSessionKey, final EmailSenderNodeSettings settings) {
+        this(emailSessionKey, settings, MessageTemplate.compile(settings.m_messageSettings));
+    }
+
+    /**
+     * @param emailSessionKey the session
+     * @param settings the settings
+     * @param messageTemplate the message as per settings, compiled once and reused across sends (same settings).
+     */
+    EmailSender(final EmailSessionKey emailSessionKey, final EmailSenderNodeSettings settings,
+        final MessageTemplate messageTemplate) {
         m_emailSessionKey = emailSessionKey;
         m_settings = CheckUtils.checkArgumentNotNull(settings);
+        m_messageTemplate = CheckUtils.checkArgumentNotNull(messageTemplate);
     }
 
     void addReport(final IReportPortObject report) {
@@ -161,129 +187,377 @@ void addReport(final IReportPortObject report) {
     }
 
     /** Sets the attachment list as per input column. If set (not null) it will be used as attachment list. */
-    void setAttachmentsFromInputColumn(final FSLocation[] attachmentsFromInputColumn) {
+    void setAttachmentsFromInputColumn(final List<InputAttachment> attachmentsFromInputColumn) {
         m_attachmentsFromInputColumn = attachmentsFromInputColumn;
     }
 
     /**
-     * Throws exception if the address list contains forbidden entries according to
-     * {@link #PROPERTY_ALLOWED_RECIPIENT_DOMAINS}.
-     *
-     * @param addressString The non null string as entered in dialog (addresses separated by comma)
-     * @return The list of addresses, passed through the validator.
-     * @throws AddressException If parsing fails.
-     * @thorws InvalidSettingsException If domain not allowed.
+     * Enables the collection of {@link DeliveryResult}s (incl. the size of the message). If enabled, rejected
+     * recipients don't fail the send but are reported in the result.
      */
-    private static InternetAddress[] parseAndValidateRecipients(final String addressString)
-        throws InvalidSettingsException, AddressException {
-        var validDomainListString = System.getProperty(PROPERTY_ALLOWED_RECIPIENT_DOMAINS);
-        InternetAddress[] addressArray = InternetAddress.parse(addressString, false);
-        String[] validDomains = Strings.isNullOrEmpty(validDomainListString) //
-            ? new String[0] : validDomainListString.toLowerCase().split(",");
-        for (InternetAddress a : addressArray) {
-            boolean isOK = validDomains.length == 0; // ok if domain list not specified
-            final String address = a.getAddress().toLowerCase();
-            for (String validDomain : validDomains) {
-                isOK = isOK || address.endsWith(validDomain);
-            }
-            if (!isOK) {
-                throw new InvalidSettingsException(String.format(
-                    "Recipient '%s' is not valid as the domain is not in the allowed list. "
-                        + "Check the system property \"%s\", which currently lists %s.",
-                    address, PROPERTY_ALLOWED_RECIPIENT_DOMAINS, validDomainListString));
-            }
-        }
-        return addressArray;
+    void setReportDeliveryResults(final boolean isReportDeliveryResults) {
+        m_isReportDeliveryResults = isReportDeliveryResults;
     }
 
     /**
-     * Send the mail.
+     * Send the mail, retrying on transient failures as per {@link DeliverySettings}. If the number of recipients
+     * exceeds the configured maximum, the message is sent in multiple envelopes (recipient chunks), whereby the message
+     * is rendered only once.
      *
+     * @param flowVarResolver The resolver for the flow variables (= NodeModel)
+     * @param exec for cancellation while waiting for a retry
+     * @return the result of the delivery, one per envelope
      * @throws MessagingException ... when sending fails, also authorization exceptions etc.
-     * @throws IOException SSL problems or when copying remote URLs to temp local file.
+     * @throws IOException SSL problems or when reading (and encoding) attachments fails.
      * @throws InvalidSettingsException on invalid referenced flow vars
      * @throws KNIMEException Any type of send message failure (e.g. timeout)
+     * @throws CanceledExecutionException If canceled while waiting for a retry
      */
-    void send(final FlowVariableProvider flowVarResolver)
-        throws MessagingException, IOException, InvalidSettingsException, KNIMEException {
-        final var messageAndContentType = readMessage(flowVarResolver);
+    List<DeliveryResult> send(final FlowVariableProvider flowVarResolver, final ExecutionMonitor exec)
+        throws MessagingException, IOException, InvalidSettingsException, KNIMEException,
+        CanceledExecutionException {
+        final RenderedMessage renderedMessage = m_messageTemplate.render(flowVarResolver);
+        final var deliverySettings = m_settings.m_deliverySettings;
+        final List<DeliveryResult> results = new ArrayList<>();
+
+        // leases on the (cached) encoded attachment and image content, released once the message is sent
+        final List<EncodedPartCache.Lease> encodedParts = new ArrayList<>();
+        PreparedMessage preparedMessage = null; // created with the first connection, reused for retries and chunks
+        SentCopy sentCopy = null; // saved asynchronously once the message is accepted by the server
+        try {
+            var retry = 0;
+            var result = new DeliveryResult();
+            while (preparedMessage == null || results.size() < preparedMessage.getChunkCount()) {
+                result.setRetryCount(retry);
+                final long start = System.currentTimeMillis();
+                // make sure to set class loader to jakarta.mail - this has caused problems in the past, see bug 5316
+                try (final var outgoingSession = m_emailSessionKey.connectOutgoing();
+                        final var transport = outgoingSession.getEmailTransport()) {
+                    result.setConnectMillis(System.currentTimeMillis() - start);
+                    final List<String> extensions = getUsedExtensions(outgoingSession);
+                    if (preparedMessage == null) {
+                        preparedMessage = prepareMessage(outgoingSession, renderedMessage, encodedParts, result);
+                    }
+                    while (results.size() < preparedMessage.getChunkCount()) {
+                        exec.checkCanceled();
+                        result.setExtensions(extensions);
+                        sendChunk(transport, preparedMessage, results.size(), result);
+                        if (sentCopy == null && deliverySettings.m_saveSentCopy) {
+                            sentCopy = saveSentCopy(preparedMessage);
+                        }
+                        results.add(result.finish());
+                        result = new DeliveryResult();
+                        retry = 0;
+                    }
+                } catch (MessagingException | KNIMEException e) { // NOSONAR (rethrown if not retried)
+                    if (retry < deliverySettings.m_retryCount && isTransientFailure(e)) {
+                        final long delayMillis = deliverySettings.getRetryDelayMillis(retry);
+                        LOGGER.warnWithFormat("Sending email failed (%s), retrying in %d seconds (retry %d of %d)",
+                            ExceptionUtils.getRootCauseMessage(e), delayMillis / 1000, retry + 1,
+                            deliverySettings.m_retryCount);
+                        waitForRetry(exec, delayMillis);
+                        retry += 1;
+                    } else if (m_isReportDeliveryResults && preparedMessage != null
+                        && e instanceof SendFailedException sfe) {
+                        // reported as rejected recipients in the result table, continue with next chunk (if any)
+                        result.setFailed(sfe);
+                        results.add(result.finish());
+                        result = new DeliveryResult();
+                        retry = 0;
+                    } else {
+                        throw e;
+                    }
+                }
+            }
+            if (sentCopy != null) {
+                sentCopy.await(exec);
+            }
+        } finally {
+            encodedParts.forEach(EncodedPartCache.Lease::close);
+            if (preparedMessage != null) {
+                preparedMessage.close();
+            }
+            if (sentCopy != null) {
+                sentCopy.close();
+            }
+        }
+        return results;
+    }
 
-        // make sure to set class loader to jakarta.mail - this has caused problems in the past, see bug 5316
-        try (final var outgoingSession = m_emailSessionKey.connectOutgoing();
-                final var transport = outgoingSession.getEmailTransport()) {
-            final var mimeMessage = initMessage(outgoingSession);
+    /** Queues a copy of the message for appending to the configured folder (see {@link SentFolderAppender}). */
+    private SentCopy saveSentCopy(final PreparedMessage preparedMessage) throws IOException, KNIMEException {
+        final var file = FileUtil.createTempFile("email-sender-copy", ".eml");
+        try {
+            preparedMessage.writeCopyTo(file);
+        } catch (MessagingException e) {
+            FileUtils.deleteQuietly(file);
+            throw toKNIMEException(e);
+        } catch (IOException e) {
+            FileUtils.deleteQuietly(file);
+            throw e;
+        }
+        final String folder = m_settings.m_deliverySettings.m_sentFolder;
+        return new SentCopy(folder, file, SentFolderAppender.getInstance().append(m_emailSessionKey, folder, file));
+    }
+
+    /** A copy of the sent message being appended to a folder of the incoming server, see {@link #await}. */
+    private static final class SentCopy implements AutoCloseable {
+
+        private final String m_folder;
+
+        private final File m_file;
 
-            // text or html message part
-            final Multipart mp = initMessageBody(messageAndContentType, m_reportPortObject);
-            send(transport, mimeMessage, mp);
+        private final CompletableFuture<Void> m_future;
+
+        SentCopy(final String folder, final File file, final CompletableFuture<Void> future) {
+            m_folder = folder;
+            m_file = file;
+            m_future = future;
+        }
+
+        /** Waits for the append to complete, failing if it failed (the email itself was sent nonetheless). */
+        void await(final ExecutionMonitor exec) throws CanceledExecutionException, KNIMEException {
+            while (true) {
+                exec.checkCanceled();
+                try {
+                    m_future.get(250, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) { // NOSONAR check for cancellation and continue waiting
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CanceledExecutionException("Interrupted while saving copy of sent email");
+                } catch (ExecutionException e) {
+                    throw org.knime.core.node.message.Message.builder() //
+                        .withSummary(String.format("The email was sent but saving a copy to folder '%s' failed: %s",
+                            m_folder, ExceptionUtils.getRootCauseMessage(e))) //
+                        .addResolutions("Make sure the folder exists on the incoming mail server",
+                            "Disable saving a copy in the node configuration (advanced settings)") //
+                        .build().orElseThrow().toKNIMEException(e);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            if (m_future.isDone()) {
+                FileUtils.deleteQuietly(m_file);
+            } else { // canceled while appending, the appender still reads the file
+                m_future.whenComplete((v, t) -> FileUtils.deleteQuietly(m_file));
+            }
+        }
+    }
+
+    /**
+     * The SMTP extensions affecting the transfer encoding that are supported by the server and enabled in the session:
+     * 8BITMIME (text parts are sent 8bit instead of quoted-printable/base64 encoded), SMTPUTF8 (unencoded headers
+     * and internationalized addresses) and CHUNKING (message transferred in BDAT chunks, without dot-stuffing).
+     */
+    private static List<String> getUsedExtensions(final EmailOutgoingSession outgoingSession) {
+        final var session = outgoingSession.getSession();
+        final List<String> extensions = new ArrayList<>();
+        final var protocol = outgoingSession.getEmailTransport().getURLName().getProtocol();
+        if (outgoingSession.supportsExtension(EmailOutgoingSession.EXTENSION_8BITMIME)
+            && Boolean.parseBoolean(session.getProperty("mail." + protocol + ".allow8bitmime"))) {
+            extensions.add(EmailOutgoingSession.EXTENSION_8BITMIME);
+        }
+        if (outgoingSession.supportsExtension(EmailOutgoingSession.EXTENSION_SMTPUTF8) && isAllowUtf8(session)) {
+            extensions.add(EmailOutgoingSession.EXTENSION_SMTPUTF8);
+        }
+        if (outgoingSession.supportsExtension(EmailOutgoingSession.EXTENSION_CHUNKING)
+            && NumberUtils.toInt(session.getProperty("mail." + protocol + ".chunksize")) > 0) {
+            extensions.add(EmailOutgoingSession.EXTENSION_CHUNKING);
+        }
+        LOGGER.debugWithFormat("SMTP extensions used for sending: %s", extensions);
+        return extensions;
+    }
+
+    /** Whether unencoded UTF-8 may be used in headers, only true if the server supports SMTPUTF8. */
+    private static boolean isAllowUtf8(final Session session) {
+        return Boolean.parseBoolean(session.getProperty("mail.mime.allowutf8"));
+    }
+
+    /** Renders the message (incl. attachments) and splits the recipients into chunks as per settings. */
+    private PreparedMessage prepareMessage(final EmailOutgoingSession outgoingSession,
+        final RenderedMessage renderedMessage, final List<EncodedPartCache.Lease> encodedParts,
+        final DeliveryResult result) throws MessagingException, IOException, InvalidSettingsException, KNIMEException {
+        long start = System.currentTimeMillis();
+        final var mimeMessage = initMessage(outgoingSession);
+
+        // text or html message part
+        final Multipart mp = initMessageBody(renderedMessage, m_reportPortObject, encodedParts);
+        result.setRenderMillis(System.currentTimeMillis() - start);
+        start = System.currentTimeMillis();
+        addAttachments(mp, encodedParts);
+        mimeMessage.setContent(mp);
+        result.setAttachMillis(System.currentTimeMillis() - start);
+
+        final List<Address[]> chunks =
+            chunkRecipients(mimeMessage.getAllRecipients(), m_settings.m_deliverySettings.m_maxRecipientsPerMessage);
+        if (chunks.size() == 1) {
+            return new PreparedMessage(mimeMessage, mimeMessage, chunks, null, null);
+        }
+        // multiple envelopes: write the message once (without Bcc) and stream it from the file for each envelope
+        final var tempFile = FileUtil.createTempFile("email-sender-message", ".eml");
+        try {
+            mimeMessage.saveChanges();
+            try (final var out = new BufferedOutputStream(Files.newOutputStream(tempFile.toPath()))) {
+                mimeMessage.writeTo(out, new String[]{"Bcc", "Content-Length"});
+            }
+            final var in = new SharedFileInputStream(tempFile);
+            return new PreparedMessage(new MimeMessage(outgoingSession.getSession(), in), mimeMessage, chunks, tempFile,
+                in);
+        } catch (IOException | MessagingException e) {
+            FileUtils.deleteQuietly(tempFile);
+            throw e;
         }
     }
 
-    private void send(final Transport transport, final MimeMessage message, final Multipart mp)
+    /**
+     * @param recipients all recipients (To, CC, BCC)
+     * @param maxRecipientsPerChunk the maximum number of recipients per chunk, 0 for unlimited
+     * @return the recipient chunks, at least one
+     */
+    static List<Address[]> chunkRecipients(final Address[] recipients, final int maxRecipientsPerChunk) {
+        if (maxRecipientsPerChunk <= 0 || recipients.length <= maxRecipientsPerChunk) {
+            return List.of(recipients);
+        }
+        final List<Address[]> chunks = new ArrayList<>();
+        for (var i = 0; i < recipients.length; i += maxRecipientsPerChunk) {
+            chunks.add(Arrays.copyOfRange(recipients, i, Math.min(i + maxRecipientsPerChunk, recipients.length)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Whether the failure is (likely) temporary: timeouts, connection failures and 4xx replies of the SMTP server
+     * (see RFC 5321, section 4.2.1). Authentication failures and permanent (5xx) replies are not retried.
+     */
+    private static boolean isTransientFailure(final Exception e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof AuthenticationFailedException) {
+                return false;
+            }
+            if (t instanceof SMTPSendFailedException sfe) {
+                return isTransientReplyCode(sfe.getReturnCode());
+            }
+            if (t instanceof SMTPAddressFailedException afe) {
+                return isTransientReplyCode(afe.getReturnCode());
+            }
+            if (t instanceof MailConnectException || t instanceof SocketTimeoutException
+                || t instanceof ConnectException || t instanceof SocketException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTransientReplyCode(final int replyCode) {
+        return replyCode >= 400 && replyCode < 500;
+    }
+
+    private static void waitForRetry(final ExecutionMonitor exec, final long delayMillis)
+        throws CanceledExecutionException {
+        final long end = System.currentTimeMillis() + delayMillis;
+        for (long remaining = delayMillis; remaining > 0; remaining = end - System.currentTimeMillis()) {
+            exec.checkCanceled();
+            try {
+                Thread.sleep(Math.min(remaining, 250));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new CanceledExecutionException("Interrupted while waiting to retry sending");
+            }
+        }
+        exec.checkCanceled();
+    }
+
+    private void addAttachments(final Multipart mp, final List<EncodedPartCache.Lease> encodedParts)
         throws IOException, InvalidSettingsException, KNIMEException {
-        List<File> tempDirs = new ArrayList<>();
-        final FSLocation[] attachmentLocations;
+        final List<InputAttachment> attachments;
         if (m_attachmentsFromInputColumn != null) {
-            attachmentLocations = m_attachmentsFromInputColumn;
+            attachments = m_attachmentsFromInputColumn;
         } else {
-            attachmentLocations = Stream.of(m_settings.m_messageSettings.m_attachments) //
+            attachments = Stream.of(m_settings.m_messageSettings.m_attachments) //
                 .map(Attachment::toFSLocation) //
                 .filter(location -> StringUtils.isNotBlank(location.getPath())) //
-                .toArray(FSLocation[]::new);
+                .<InputAttachment> map(InputAttachment.LocationAttachment::new) //
+                .toList();
         }
         try {
-            for (var i = 0; i < attachmentLocations.length; i++) {
-                final Pointer<StatusMessage> messagePointer = new Pointer<>();
-                try (final var pathAccessor = new FSLocationPathAccessor(attachmentLocations[i]);
-                        final var fsConnection = pathAccessor.getConnection()) {
-                    final var fsPath = pathAccessor.getRootPath(messagePointer::set);
-                    final var localFile = toLocalFile(tempDirs, fsPath, fsConnection);
-                    addAttachments(mp, localFile, Integer.toString(i));
+            for (var i = 0; i < attachments.size(); i++) {
+                if (attachments.get(i) instanceof InputAttachment.LocationAttachment locationAttachment) {
+                    final FSLocation location = locationAttachment.location();
+                    final Pointer<StatusMessage> messagePointer = new Pointer<>();
+                    try (final var pathAccessor = new FSLocationPathAccessor(location);
+                            final var fsConnection = pathAccessor.getConnection()) {
+                        final var fsPath = pathAccessor.getRootPath(messagePointer::set);
+                        addAttachment(mp, fsPath, location, Integer.toString(i), encodedParts);
+                    }
+                } else {
+                    addAttachment(mp, (InputAttachment.CellAttachment)attachments.get(i), Integer.toString(i));
                 }
             }
-            message.setContent(mp);
-            transport.sendMessage(message, message.getAllRecipients());
         } catch (MessagingException e) {
-            var isSocketTimeout = e.getCause() instanceof SocketTimeoutException;
-            final var errorMessageBuilder = org.knime.core.node.message.Message.builder();
-            if (isSocketTimeout) {
-                errorMessageBuilder.withSummary("Unable to send mesage");
-            } else {
-                errorMessageBuilder //
-                .withSummary("SMTP timeout occurred") //
-                .addResolutions("Increase timeout values in node configuration (advanced settings)");
+            throw toKNIMEException(e);
+        }
+    }
+
+    private void sendChunk(final Transport transport, final PreparedMessage preparedMessage, final int chunkIndex,
+        final DeliveryResult result) throws IOException, KNIMEException, SendFailedException {
+        final MimeMessage message = preparedMessage.getMessage();
+        final Address[] recipients = preparedMessage.getChunk(chunkIndex);
+        try {
+            final long start = System.currentTimeMillis();
+            try {
+                transport.sendMessage(message, recipients);
+            } finally {
+                result.setSendMillis(System.currentTimeMillis() - start);
+                if (transport instanceof SMTPTransport smtpTransport) {
+                    result.setServerReply(StringUtils.trim(smtpTransport.getLastServerResponse()));
+                }
             }
-            errorMessageBuilder //
-                .addResolutions("Review network configuration (such as proxy settings etc)") //
-                .addTextIssue(ExceptionUtils.getRootCauseMessage(e));
-            throw errorMessageBuilder.build().orElseThrow().toKNIMEException(e);
-        } finally {
-            for (File d : tempDirs) {
-                FileUtils.deleteQuietly(d);
+            result.setAccepted(recipients);
+            if (m_isReportDeliveryResults) {
+                result.setMessageSize(preparedMessage.getSize());
+            }
+        } catch (SendFailedException e) {
+            if (m_isReportDeliveryResults) {
+                throw e; // rejected recipients are reported in the result, see caller
             }
+            throw toKNIMEException(e);
+        } catch (MessagingException e) {
+            throw toKNIMEException(e);
+        }
+    }
+
+    private static KNIMEException toKNIMEException(final MessagingException e) {
+        var isSocketTimeout = e.getCause() instanceof SocketTimeoutException;
+        final var errorMessageBuilder = org.knime.core.node.message.Message.builder();
+        if (isSocketTimeout) {
+            errorMessageBuilder.withSummary("Unable to send mesage");
+        } else {
+            errorMessageBuilder //
+            .withSummary("SMTP timeout occurred") //
+            .addResolutions("Increase timeout values in node configuration (advanced settings)");
         }
+        errorMessageBuilder //
+            .addResolutions("Review network configuration (such as proxy settings etc)") //
+            .addTextIssue(ExceptionUtils.getRootCauseMessage(e));
+        return errorMessageBuilder.build().orElseThrow().toKNIMEException(e);
     }
 
     /**
-     * The message as per settings, with flow variable placeholders filled in. Message is (still) in html since the rich
-     * text editor text is html (only).
+     * Parses the address list, adding the addresses to the argument list for later validation.
      *
-     * @param flowVarResolver The resolver for the flow variables (= NodeModel)
-     * @return The message, flow variable placeholders replaced by their respective value.
-     * @throws InvalidSettingsException
+     * @param addressString The non null string as entered in dialog (addresses separated by comma)
+     * @param allAddresses the list to add the parsed addresses to
+     * @return The parsed addresses.
+     * @throws AddressException If parsing fails.
      */
-    private DocumentAndContentType readMessage(final FlowVariableProvider flowVarResolver)
-        throws InvalidSettingsException {
-        final String rawMessageHTML = m_settings.m_messageSettings.m_message;
-        final String messageHtml;
-        try {
-            messageHtml = FlowVariableResolver.parse(rawMessageHTML, flowVarResolver);
-        } catch (NoSuchElementException nse) {
-            throw new InvalidSettingsException(
-                "A flow variable could not be resolved due to \"" + nse.getMessage() + "\".", nse);
-        }
-        final Document messageDoc = Jsoup.parse(POLICY.sanitize(messageHtml));
-        return new DocumentAndContentType(messageDoc, m_settings.m_messageSettings.m_format);
+    private static InternetAddress[] parseRecipients(final String addressString,
+        final List<InternetAddress> allAddresses) throws AddressException {
+        final InternetAddress[] addressArray = InternetAddress.parse(addressString, false);
+        allAddresses.addAll(Arrays.asList(addressArray));
+        return addressArray;
     }
 
     private MimeMessage initMessage(final EmailOutgoingSession outgoingSession)
@@ -303,17 +577,24 @@ private MimeMessage initMessage(final EmailOutgoingSession outgoingSession)
         } else {
             message.setFrom();
         }
+        // all addresses are validated at once so that all rejected recipients are reported
+        final List<InternetAddress> allAddresses = new ArrayList<>();
         if (!Strings.isNullOrEmpty(to)) {
-            message.addRecipients(Message.RecipientType.TO, parseAndValidateRecipients(to));
+            message.addRecipients(Message.RecipientType.TO, parseRecipients(to, allAddresses));
         }
         if (!Strings.isNullOrEmpty(cc)) {
-            message.addRecipients(Message.RecipientType.CC, parseAndValidateRecipients(cc));
+            message.addRecipients(Message.RecipientType.CC, parseRecipients(cc, allAddresses));
         }
         if (!Strings.isNullOrEmpty(bcc)) {
-            message.addRecipients(Message.RecipientType.BCC, parseAndValidateRecipients(bcc));
+            message.addRecipients(Message.RecipientType.BCC, parseRecipients(bcc, allAddresses));
         }
         if (!Strings.isNullOrEmpty(replyTo)) {
-            message.setReplyTo(parseAndValidateRecipients(replyTo));
+            message.setReplyTo(parseRecipients(replyTo, allAddresses));
+        }
+        RecipientDomainPolicy.getInstance().validate(allAddresses);
+        final boolean isAllowUtf8 = isAllowUtf8(session);
+        if (!isAllowUtf8) {
+            checkAsciiAddresses(allAddresses);
         }
         if (message.getAllRecipients() == null) {
             throw org.knime.core.node.message.Message.fromSummaryWithResolution("No recipients were specified.",
@@ -324,23 +605,47 @@ private MimeMessage initMessage(final EmailOutgoingSession outgoingSession)
 
         final var messageSettings = m_settings.m_messageSettings;
         message.setSentDate(new Date()); // NOSONAR
-        message.setSubject(messageSettings.m_subject, StandardCharsets.UTF_8.name());
+        if (isAllowUtf8 && messageSettings.m_subject != null) {
+            // SMTPUTF8: no need to encode (and inflate) the subject
+            message.setHeader("Subject", MimeUtility.fold(9, messageSettings.m_subject));
+        } else {
+            message.setSubject(messageSettings.m_subject, StandardCharsets.UTF_8.name());
+        }
 
         return message;
     }
 
-    private static Multipart initMessageBody(final DocumentAndContentType messageRecord, final IReportPortObject report)
-        throws MessagingException {
+    /**
+     * Internationalized addresses (non-ASCII characters in the local part or domain) can only be sent if the server
+     * supports SMTPUTF8 (RFC 6531), fail early with a clear message otherwise.
+     */
+    private static void checkAsciiAddresses(final List<InternetAddress> addresses) throws InvalidSettingsException {
+        final List<String> nonAsciiAddresses = addresses.stream() //
+            .map(InternetAddress::getAddress) //
+            .filter(address -> address != null && !StandardCharsets.US_ASCII.newEncoder().canEncode(address)) //
+            .toList();
+        if (!nonAsciiAddresses.isEmpty()) {
+            throw org.knime.core.node.message.Message.fromSummaryWithResolution(
+                String.format("The email server does not support internationalized addresses (SMTPUTF8): %s",
+                    String.join(", ", nonAsciiAddresses)),
+                "Use the ASCII form of the addresses (e.g. the punycode representation of the domain)")
+                .toInvalidSettingsException();
+        }
+    }
+
+    private static Multipart initMessageBody(final RenderedMessage message, final IReportPortObject report,
+        final List<EncodedPartCache.Lease> encodedParts) throws MessagingException {
         var contentBody = new MimeBodyPart();
         // related = can use cid references (some clients would otherwise not show them inline, e.g. thunderbird)
         Multipart mp = new MimeMultipart("related");
         mp.addBodyPart(contentBody);
-        Document document = messageRecord.messageDocument();
+        final boolean useHtmlFormat = report != null || message.format() == EMailFormat.HTML;
+        final String content;
         if (report != null) {
             try {
-                final Document reportDocument = appendReport(mp, report);
-                if (StringUtils.isNotBlank(document.text())) {
-                    reportDocument.body().insertChildren(0, document.body().childNodes());
+                final Document reportDocument = appendReport(mp, report, encodedParts);
+                if (!message.isBlank()) {
+                    reportDocument.body().insertChildren(0, message.copyDocument().body().childNodes());
                 }
                 // 95% of the document are style definition, making very simple reports as large as 200+kB
                 // (GMail has a limitation of 120kB - mail body larger than that are clipped)
@@ -348,68 +653,166 @@ private static Multipart initMessageBody(final DocumentAndContentType messageRec
                 if (!Boolean.getBoolean("knime.email.report.keep.style")) {
                     reportDocument.select("style").remove();
                 }
-                document = reportDocument;
+                content = reportDocument.html();
             } catch (IOException ioe) {
                 throw new MessagingException("Unable to append report to email body: " + ioe.getMessage(), ioe);
             }
+        } else {
+            content = message.content(useHtmlFormat);
         }
-        final boolean useHtmlFormat = report != null || messageRecord.format() == EMailFormat.HTML;
-        final String content = useHtmlFormat ? document.html() : MessageUtil.documentToPlainText(document);
         contentBody.setContent(content, MessageUtil.contentType(useHtmlFormat));
         return mp;
     }
 
-    private static Document appendReport(final Multipart mp, final IReportPortObject reportPortObject)
-        throws IOException {
+    private static Document appendReport(final Multipart mp, final IReportPortObject reportPortObject,
+        final List<EncodedPartCache.Lease> encodedParts) throws IOException {
         final File tempDir = FileUtil.createTempDir("email-sender-report");
         try {
             final Path reportFilePath = tempDir.toPath().resolve("report.html");
-            final AsPartImageHandler imageHandler = new AsPartImageHandler(mp);
+            final AsPartImageHandler imageHandler = new AsPartImageHandler(mp, encodedParts);
             ReportHtmlWriterUtils.writeReportToHtml(reportFilePath, reportPortObject, imageHandler);
-            final String asString = Files.readString(reportFilePath, StandardCharsets.UTF_8);
-            return Jsoup.parse(asString);
+            imageHandler.logDeduplicationStatistics();
+            // parse from the file (stream) rather than reading it into a string first, reports can be large
+            return Jsoup.parse(reportFilePath.toFile(), StandardCharsets.UTF_8.name());
         } finally {
             FileUtils.deleteQuietly(tempDir);
         }
     }
 
-    private static void addAttachments(final Multipart mp, final File file, final String cid)
-        throws IOException, MessagingException {
-        var filePart = new MimeBodyPart();
-        filePart.attachFile(file);
-        String encodedFileName = MimeUtility.encodeText(file.getName(), StandardCharsets.UTF_8.name(), null);
+    /**
+     * Adds the file as attachment. The file content is base64 encoded only once and cached for subsequent messages
+     * (see {@link EncodedPartCache}), addressed by location, modification time and size of the file.
+     */
+    private static void addAttachment(final Multipart mp, final FSPath path, final FSLocation location,
+        final String cid, final List<EncodedPartCache.Lease> encodedParts) throws IOException, MessagingException {
+        CheckUtils.check(Files.isReadable(path), IOException::new, () -> String
+            .format("The KNIME AP does not have the permissions to read the file attachment at \"%s\".", path));
+        final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        final EncodedPartCache.Encoder encoder = out -> {
+            try (final var in = Files.newInputStream(path);
+                    final var base64Out = Base64.getMimeEncoder().wrap(out)) {
+                in.transferTo(base64Out);
+            }
+        };
+        final EncodedPartCache.Lease content;
+        if (lastModified > 0) {
+            final var key = String.format("file:%s:%d:%d", location, lastModified, attributes.size());
+            content = EncodedPartCache.getInstance().getOrEncode(key, encoder);
+        } else { // modification time not supported by file system, can't tell whether cached content is stale
+            content = EncodedPartCache.getInstance().encodeUncached(encoder);
+        }
+        encodedParts.add(content);
+
+        final String fileName = path.getName(path.getNameCount() - 1).toString();
+        final String contentType = FileTypeMap.getDefaultFileTypeMap().getContentType(fileName);
+        var filePart = new PreencodedMimeBodyPart("base64");
+        filePart.setDataHandler(new DataHandler(content.toDataSource(contentType, fileName)));
+        filePart.setDisposition(Part.ATTACHMENT);
+        String encodedFileName = MimeUtility.encodeText(fileName, StandardCharsets.UTF_8.name(), null);
         filePart.setFileName(encodedFileName);
-        filePart.setHeader("Content-Type", FileTypeMap.getDefaultFileTypeMap().getContentType(file));
+        filePart.setHeader("Content-Type", contentType);
         // set content-id header, allows in-line embedding of attached images (AP-21415)
         filePart.setHeader("X-Attachment-Id", cid);
         filePart.setHeader("Content-ID", cid);
         mp.addBodyPart(filePart);
     }
 
-    /** Resolves the path to a local file, copying it locally if needed and adding it to the list of temp files. */
-    private static File toLocalFile(final List<File> tempDirs, final FSPath path, final FSConnection fsConnection)
-        throws IOException {
-        final File file;
+    /**
+     * Adds the content of a binary object or string cell. It's read from the cell whenever the message is written, i.e.
+     * not buffered in a (temp) file.
+     */
+    private static void addAttachment(final Multipart mp, final InputAttachment.CellAttachment attachment,
+        final String cid) throws IOException, MessagingException {
+        final var part = new MimeBodyPart();
+        part.setDataHandler(new DataHandler(attachment.toDataSource()));
+        part.setDisposition(Part.ATTACHMENT);
+        part.setFileName(MimeUtility.encodeText(attachment.fileName(), StandardCharsets.UTF_8.name(), null));
+        part.setHeader("Content-Type", attachment.getContentType());
+        if (attachment.isBinary()) {
+            // otherwise determined by scanning the content, which would mean reading it once more
+            part.setHeader("Content-Transfer-Encoding", "base64");
+        }
+        part.setHeader("X-Attachment-Id", cid);
+        part.setHeader("Content-ID", cid);
+        mp.addBodyPart(part);
+    }
+
+    /**
+     * The message ready to be sent, along with the recipient chunks (envelopes). If sent in multiple envelopes, the
+     * message is backed by a temp file so that it's rendered only once.
+     */
+    private static final class PreparedMessage implements AutoCloseable {
 
-        final var factory = fsConnection.getURIExporterFactory(URIExporterIDs.KNIME_FILE);
-        if (factory != null) { // we are local
-            URI uri;
-            try {
-                uri = ((NoConfigURIExporterFactory)factory).getExporter().toUri(path);
-            } catch (URISyntaxException ex) {
-                throw new IOException(
-                    String.format("Unable to resolve path to local file - \"%s\": %s", path, ex.getMessage()), ex);
+        private final MimeMessage m_message;
+
+        /** The message as rendered, incl. Bcc header (same as m_message unless file based). */
+        private final MimeMessage m_originalMessage;
+
+        private final List<Address[]> m_chunks;
+
+        private final File m_file;
+
+        private final SharedFileInputStream m_fileInputStream;
+
+        private long m_size = -1;
+
+        PreparedMessage(final MimeMessage message, final MimeMessage originalMessage, final List<Address[]> chunks,
+            final File file, final SharedFileInputStream fileInputStream) {
+            m_message = message;
+            m_originalMessage = originalMessage;
+            m_chunks = chunks;
+            m_file = file;
+            m_fileInputStream = fileInputStream;
+        }
+
+        MimeMessage getMessage() {
+            return m_message;
+        }
+
+        int getChunkCount() {
+            return m_chunks.size();
+        }
+
+        Address[] getChunk(final int index) {
+            return m_chunks.get(index);
+        }
+
+        /** The size of the message as transferred (the encoded parts are streamed again if not file based). */
+        long getSize() throws IOException, MessagingException {
+            if (m_size < 0) {
+                if (m_file != null) {
+                    m_size = m_file.length();
+                } else {
+                    try (final var out = new CountingOutputStream(NullOutputStream.INSTANCE)) {
+                        m_message.writeTo(out, new String[]{"Bcc", "Content-Length"});
+                        m_size = out.getByteCount();
+                    }
+                }
+            }
+            return m_size;
+        }
+
+        /** Writes the message incl. its Bcc header, e.g. for saving a copy to the 'Sent' folder. */
+        void writeCopyTo(final File file) throws IOException, MessagingException {
+            try (final var out = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+                m_originalMessage.writeTo(out, new String[]{"Content-Length"});
+            }
+        }
+
+        @Override
+        public void close() {
+            if (m_fileInputStream != null) {
+                try {
+                    m_fileInputStream.close();
+                } catch (IOException e) {
+                    LOGGER.debug("Unable to close message file: " + e.getMessage(), e);
+                }
+            }
+            if (m_file != null) {
+                FileUtils.deleteQuietly(m_file);
             }
-            file = Paths.get(uri).toFile();
-        } else {
-            var tempDir = FileUtil.createTempDir("send-mail-attachment");
-            tempDirs.add(tempDir);
-            file = new File(tempDir, path.getName(path.getNameCount() - 1).toString());
-            Files.copy(path, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
         }
-        CheckUtils.check(file.canRead(), IOException::new, () -> String
-            .format("The KNIME AP does not have the permissions to read the file attachment at \"%s\".", path));
-        return file;
     }
 
     /**
@@ -465,6 +868,9 @@ private static class AsPartImageHandler implements ReportHtmlImageHandler {
 
         private static final String CRLF = "\r\n";
 
+        /** Number of (mime) lines written to the output at once. */
+        private static final int BUFFER_LINES = 128;
+
         /** Inline images start with this string, e.g.
          * <pre>
          *   &lt;img style="width:701px" src="data:image/png;base64,iVBORw0...
@@ -473,10 +879,15 @@ private static class AsPartImageHandler implements ReportHtmlImageHandler {
         private static final String IMG_SRC_INLINE = "data:image/png;base64,";
 
         private final Multipart m_multipart;
+        private final List<EncodedPartCache.Lease> m_encodedParts;
+        /** Content hash to content id of images already added, identical images refer to the same part. */
+        private final Map<String, String> m_hashToCid = new HashMap<>();
         private int m_imageCounter;
+        private int m_imageReferenceCounter;
 
-        AsPartImageHandler(final Multipart multipart) {
+        AsPartImageHandler(final Multipart multipart, final List<EncodedPartCache.Lease> encodedParts) {
             m_multipart = multipart;
+            m_encodedParts = encodedParts;
         }
 
         /**
@@ -486,18 +897,30 @@ private static class AsPartImageHandler implements ReportHtmlImageHandler {
         public String handleImage(final String imageData) throws IOException {
             if (StringUtils.startsWith(imageData, IMG_SRC_INLINE)) {
                 try {
-                    String base64 = StringUtils.removeStart(imageData, IMG_SRC_INLINE);
+                    // image data can be several MB, avoid copies of it (substring etc.)
+                    final int offset = IMG_SRC_INLINE.length();
+                    m_imageReferenceCounter += 1;
+                    final String hash = Hashing.sha256().newHasher() //
+                        .putUnencodedChars(CharBuffer.wrap(imageData, offset, imageData.length())).hash().toString();
+                    final String existingCid = m_hashToCid.get(hash);
+                    if (existingCid != null) { // e.g. a logo repeated in each section, attached only once
+                        return String.format("cid:%s", existingCid);
+                    }
                     m_imageCounter += 1;
                     final String cid = String.format("image_%03d", m_imageCounter) ;
+                    // same image in subsequent reports/messages is only mime encoded once
+                    final var content = EncodedPartCache.getInstance().getOrEncode("image:" + hash,
+                        out -> writeMimeEncodedBase64(imageData, offset, out));
+                    m_encodedParts.add(content);
                     final var imagePart = new PreencodedMimeBodyPart("base64");
-                    base64 = mimeEncodeBase64(base64);
-                    imagePart.setContent(base64, "image/png");
+                    imagePart.setDataHandler(new DataHandler(content.toDataSource("image/png", cid + ".png")));
                     imagePart.setDisposition(Part.INLINE);
                     imagePart.setFileName(String.format("%s.png", cid));
                     imagePart.setHeader("X-Attachment-Id", cid);
                     // embedded in <..> - found out by looking at other examples created with gmail editor
                     imagePart.setContentID(String.format("<%s>", cid));
                     m_multipart.addBodyPart(imagePart);
+                    m_hashToCid.put(hash, cid);
                     return String.format("cid:%s", cid);
                 } catch (MessagingException ex) {
                     throw new IOException("Failed to append inline images as multipart element", ex);
@@ -507,25 +930,39 @@ public String handleImage(final String imageData) throws IOException {
             }
         }
 
+        void logDeduplicationStatistics() {
+            if (m_imageReferenceCounter > 0) {
+                LOGGER.debugWithFormat("Report contains %d inline image(s), %d distinct (deduplication ratio %.2f)",
+                    m_imageReferenceCounter, m_imageCounter, m_imageReferenceCounter / (double)m_imageCounter);
+            }
+        }
+
         /**
          * MIME-compliant Base64 encoding (blocks of lines of length 76 chars, terminated by crlf)
          * https://www.ietf.org/rfc/rfc2045.txt * (search for '76 characters')
-         * @param base64 The original base64 string (one long line)
-         * @return mime encoded base64 (line split after each 76 chars)
+         * @param data The string containing the original base64 (one long line)
+         * @param offset The start of the base64 content in the data string
+         * @param out the stream to write the mime encoded base64 (line split after each 76 chars) to
          */
-        private static String mimeEncodeBase64(String base64) {
-            if (!StringUtils.contains(base64, CRLF)) {
-                final StringBuilder mimeEncodedBase64 = new StringBuilder();
-                for (int i = 0, length = StringUtils.length(base64); i < length; i += MIME_LINE_LENGTH) {
-                    final int end = Math.min(i + MIME_LINE_LENGTH, length);
-                    mimeEncodedBase64.append(base64.subSequence(i, end));
-                    if (end < length) {
-                        mimeEncodedBase64.append(CRLF);
-                    }
+        private static void writeMimeEncodedBase64(final String data, final int offset, final OutputStream out)
+            throws IOException {
+            final int length = data.length();
+            final boolean isMimeEncoded = data.indexOf(CRLF, offset) >= 0;
+            final var buffer = new byte[BUFFER_LINES * (MIME_LINE_LENGTH + CRLF.length())];
+            var bufferLength = 0;
+            for (int i = offset; i < length; i++) {
+                buffer[bufferLength++] = (byte)data.charAt(i);
+                final int charCount = i - offset + 1;
+                if (!isMimeEncoded && charCount % MIME_LINE_LENGTH == 0 && i + 1 < length) {
+                    buffer[bufferLength++] = '\r';
+                    buffer[bufferLength++] = '\n';
+                }
+                if (bufferLength > buffer.length - CRLF.length() - 1) {
+                    out.write(buffer, 0, bufferLength);
+                    bufferLength = 0;
                 }
-                base64 = mimeEncodedBase64.toString();
             }
-            return base64;
+            out.write(buffer, 0, bufferLength);
         }
 
     }
@@ -76,6 +76,11 @@ public final class EmailSenderNodeFactory extends ConfigurableNodeFactory<EmailS
 
     private static final String FULL_DESCRIPTION = """
             Sends Emails to a list of recipients, supporting html content, reports, file attachments etc.
+            <p>
+            The emails are sent while the node executes, the node finishes successfully once the SMTP server accepted
+            them. Sending can be retried on transient failures (e.g. timeouts or temporary replies of the server),
+            see the <i>Delivery</i> settings.
+            </p>
             """;
 
     private static final String INPUT_EMAIL_SESSION_IDENTIFIER = "Email Session";
@@ -84,6 +89,8 @@ public final class EmailSenderNodeFactory extends ConfigurableNodeFactory<EmailS
 
     private static final String INPUT_ATTACHMENT_TABLE_IDENTIFIER = "Attachments";
 
+    private static final String OUTPUT_DELIVERY_RESULTS_IDENTIFIER = "Delivery Results";
+
     private static final WebUINodeConfiguration CONFIGURATION = WebUINodeConfiguration.builder() //
         .name("Email Sender (Labs)") //
         .icon("emailsender.png") //
@@ -96,10 +103,19 @@ public final class EmailSenderNodeFactory extends ConfigurableNodeFactory<EmailS
         .addInputPort(INPUT_REPORT_IDENTIFIER, IReportPortObject.TYPE, "A report defining the content of the email. " //
             + "In case the email is sent in text format, the report is attached as PDF file", true) //
         .addInputPort(INPUT_ATTACHMENT_TABLE_IDENTIFIER, BufferedDataTable.TYPE,
-            "A table with file attachments defined in a path column (currently only local files are supported). " //
+            "A table with file attachments defined in a path column (currently only local files are supported), or "
+                + "with the content of the attachments in a binary object or string column (optionally along with a "
+                + "column containing the file names). " //
                 + "Alternatively, if this port is not enabled, attachments can also be individually selected " //
                 + "in the node's configuration dialog. In order to create a path columns, use nodes such as "
                 + "<i>String to Path</i>", true) //
+        .addOutputPort(OUTPUT_DELIVERY_RESULTS_IDENTIFIER, BufferedDataTable.TYPE,
+            "Optional table with one row per message (envelope) sent, listing the recipients accepted and rejected " //
+                + "by the SMTP server, the server's last reply, the message size in bytes, the number of retries, " //
+                + "the SMTP extensions used (8BITMIME, SMTPUTF8, CHUNKING) and the " //
+                + "time spent connecting, rendering the message, adding attachments and transferring the message. " //
+                + "If this port is enabled, recipients rejected by the server don't fail the node but are listed " //
+                + "in the table (and a warning is shown).", true) //
         .sinceVersion(5, 3, 0) //
         .build();
 
@@ -135,6 +151,7 @@ protected Optional<PortsConfigurationBuilder> createPortsConfigBuilder() {
         b.addFixedInputPortGroup(INPUT_EMAIL_SESSION_IDENTIFIER, EmailSessionPortObject.TYPE);
         b.addOptionalInputPortGroup(INPUT_REPORT_IDENTIFIER, IReportPortObject.TYPE);
         b.addOptionalInputPortGroup(INPUT_ATTACHMENT_TABLE_IDENTIFIER, BufferedDataTable.TYPE);
+        b.addOptionalOutputPortGroup(OUTPUT_DELIVERY_RESULTS_IDENTIFIER, BufferedDataTable.TYPE);
         return Optional.of(b);
     }
 
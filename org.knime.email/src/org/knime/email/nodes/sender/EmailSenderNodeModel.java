@@ -51,10 +51,12 @@
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.IntStream;
 
 import org.knime.base.util.flowvariable.FlowVariableProvider;
+import org.knime.core.node.BufferedDataContainer;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
@@ -81,6 +83,9 @@ final class EmailSenderNodeModel extends NodeModel implements FlowVariableProvid
 
     private EmailSenderNodeSettings m_settings = new EmailSenderNodeSettings();
 
+    /** The message as per settings, compiled lazily and reused by subsequent executions (e.g. in a loop). */
+    private MessageTemplate m_messageTemplate;
+
     EmailSenderNodeModel(final PortsConfiguration portsConfiguration) {
         super(portsConfiguration.getInputPorts(), portsConfiguration.getOutputPorts());
     }
@@ -97,6 +102,7 @@ protected void validateSettings(final NodeSettingsRO settings) throws InvalidSet
     @Override
     protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
         m_settings = NodeParametersUtil.loadSettings(settings, EmailSenderNodeSettings.class);
+        m_messageTemplate = null;
     }
 
     @Override
@@ -109,7 +115,10 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs)
         throws InvalidSettingsException {
         m_settings.validateDuringConfiguration(getInputTypes(), i -> Optional.ofNullable(inSpecs[i]));
         EmailNodeUtil.checkOutgoingAvailable(inSpecs);
-        return new PortObjectSpec[]{};
+        if (m_settings.m_deliverySettings.m_saveSentCopy) {
+            EmailNodeUtil.checkIncomingAvailable(inSpecs);
+        }
+        return isReportDeliveryResults() ? new PortObjectSpec[]{DeliveryResult.SPEC} : new PortObjectSpec[]{};
     }
 
     @Override
@@ -117,14 +126,42 @@ protected PortObject[] execute(final PortObject[] inObjects, final ExecutionCont
         final EmailSessionPortObject emailSessionPO = (EmailSessionPortObject)inObjects[0];
         final IReportPortObject report = Arrays.stream(inObjects).filter(IReportPortObject.class::isInstance)
             .map(IReportPortObject.class::cast).findFirst().orElse(null);
-        final var sender = new EmailSender(emailSessionPO.getEmailSessionKey().orElseThrow(), m_settings);
+        if (m_messageTemplate == null) {
+            m_messageTemplate = MessageTemplate.compile(m_settings.m_messageSettings);
+        }
+        final var sender =
+            new EmailSender(emailSessionPO.getEmailSessionKey().orElseThrow(), m_settings, m_messageTemplate);
         sender.addReport(report);
         m_settings.m_messageSettings.readAttachmentsFromInputTable(getInputTypes(), exec, inObjects) //
             .ifPresent(sender::setAttachmentsFromInputColumn);
-        sender.send(this);
+        sender.setReportDeliveryResults(isReportDeliveryResults());
+        final List<DeliveryResult> results = sender.send(this, exec);
+        final List<String> rejectedRecipients = results.stream() //
+            .flatMap(r -> r.getRejectedRecipients().stream()).toList();
+        final int retryCount = results.stream().mapToInt(DeliveryResult::getRetryCount).sum();
+        if (!rejectedRecipients.isEmpty()) {
+            setWarningMessage(String.format("%d recipient(s) rejected by the server, e.g. %s (see output table)",
+                rejectedRecipients.size(), rejectedRecipients.get(0)));
+        } else if (retryCount > 0) {
+            setWarningMessage(String.format("Email sent after %d retr%s (see log for details)", retryCount,
+                retryCount == 1 ? "y" : "ies"));
+        }
+        if (isReportDeliveryResults()) {
+            final BufferedDataContainer container = exec.createDataContainer(DeliveryResult.SPEC);
+            for (var i = 0; i < results.size(); i++) {
+                container.addRowToTable(results.get(i).toRow(i));
+            }
+            container.close();
+            return new PortObject[]{container.getTable()};
+        }
         return new PortObject[]{};
     }
 
+    /** @return whether the optional delivery results output is enabled. */
+    private boolean isReportDeliveryResults() {
+        return getNrOutPorts() > 0;
+    }
+
     @Override
     protected void reset() {
         // no reset
@@ -55,11 +55,14 @@
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
 import org.knime.node.parameters.NodeParameters;
+import org.knime.email.nodes.sender.EmailSenderNodeSettings.Sections.DeliverySection;
 import org.knime.email.nodes.sender.EmailSenderNodeSettings.Sections.MessageSection;
 import org.knime.email.nodes.sender.EmailSenderNodeSettings.Sections.RecipientsSection;
+import org.knime.node.parameters.Advanced;
 import org.knime.node.parameters.layout.After;
 import org.knime.node.parameters.layout.Layout;
 import org.knime.node.parameters.layout.Section;
+import org.knime.node.parameters.migration.Migrate;
 import org.knime.node.parameters.persistence.Persist;
 
 /**
@@ -78,6 +81,11 @@ interface RecipientsSection {}
         @After(RecipientsSection.class)
         interface MessageSection {}
 
+        @Section(title = "Delivery")
+        @Advanced
+        @After(MessageSection.class)
+        interface DeliverySection {}
+
     }
 
     @Layout(RecipientsSection.class)
@@ -88,16 +96,23 @@ interface MessageSection {}
     @Persist(configKey = "message")
     MessageSettings m_messageSettings = new MessageSettings();
 
+    @Layout(DeliverySection.class)
+    @Persist(configKey = "delivery")
+    @Migrate(loadDefaultIfAbsent = true)
+    DeliverySettings m_deliverySettings = new DeliverySettings();
+
     @Override
     public void validate() throws InvalidSettingsException {
         m_messageSettings.validate();
         m_recipientsSettings.validate();
+        m_deliverySettings.validate();
     }
 
     void validateDuringConfiguration(final PortType[] inTypes,
         final IntFunction<? extends Optional<PortObjectSpec>> specSupplier) throws InvalidSettingsException {
         m_messageSettings.validateDuringConfiguration(inTypes, specSupplier);
         m_recipientsSettings.validate();
+        m_deliverySettings.validate();
     }
 
 }
@@ -0,0 +1,419 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sender;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.apache.commons.io.FileUtils;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.workflow.WorkflowResourceCache;
+import org.knime.core.node.workflow.WorkflowResourceCache.WorkflowResource;
+import org.knime.core.util.FileUtil;
+
+import jakarta.activation.DataSource;
+
+/**
+ * Workflow scoped cache of MIME (base64) encoded message parts. Attachments and report images that are sent repeatedly,
+ * e.g. by an Email Sender in a loop, are only encoded once and the encoded bytes are reused for subsequent messages
+ * (see {@link jakarta.mail.internet.PreencodedMimeBodyPart}).
+ *
+ * <p>
+ * Entries are content addressed (the caller derives the key from path, modification time and size, or from a content
+ * hash) and evicted in least-recently-used order once the total size exceeds the capacity as per
+ * {@value #PROPERTY_CACHE_SIZE_MB}. Large entries are spilled to a temporary file instead of being kept on the heap.
+ * Content is handed out as {@link Lease}, which needs to be closed once the message is sent; content of a spilled
+ * entry is only deleted when the entry was evicted and all its leases are closed.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class EncodedPartCache implements WorkflowResource {
+
+    /** System property defining the cache capacity in MB, defaults to {@value #DEFAULT_CACHE_SIZE_MB}. */
+    static final String PROPERTY_CACHE_SIZE_MB = "knime.email.encodedpartcache.size";
+
+    private static final long DEFAULT_CACHE_SIZE_MB = 64;
+
+    /** Entries larger than this are written to a temp file rather than kept in memory. */
+    private static final int MAX_IN_MEMORY_ENTRY_BYTES = 1 << 20;
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(EncodedPartCache.class);
+
+    /** Writes the encoded representation of some content to a stream. */
+    @FunctionalInterface
+    interface Encoder {
+        void encodeTo(OutputStream out) throws IOException;
+    }
+
+    private final long m_capacity;
+
+    private final int m_maxInMemoryEntryBytes;
+
+    /** Access-ordered, i.e. the first element is the least recently used. */
+    private final LinkedHashMap<String, Entry> m_entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long m_size;
+
+    private long m_hitCount;
+
+    private long m_missCount;
+
+    private File m_spillDir;
+
+    private EncodedPartCache() {
+        this(Math.max(0, Long.getLong(PROPERTY_CACHE_SIZE_MB, DEFAULT_CACHE_SIZE_MB)) * 1024 * 1024,
+            MAX_IN_MEMORY_ENTRY_BYTES);
+    }
+
+    /**
+     * @param capacity capacity in bytes
+     * @param maxInMemoryEntryBytes size threshold (bytes) above which an entry is spilled to disk
+     */
+    EncodedPartCache(final long capacity, final int maxInMemoryEntryBytes) {
+        m_capacity = capacity;
+        m_maxInMemoryEntryBytes = maxInMemoryEntryBytes;
+    }
+
+    /** @return the instance associated with the workflow of the current node context. */
+    static EncodedPartCache getInstance() {
+        return WorkflowResourceCache.computeIfAbsent(EncodedPartCache.class, EncodedPartCache::new);
+    }
+
+    /**
+     * Returns the encoded content for the given key, encoding it via the argument encoder if it's not cached.
+     *
+     * @param key The content key (path + modification time + size or a content hash).
+     * @param encoder Called to encode the content in case of a cache miss.
+     * @return A lease on the encoded content, to be closed when no longer needed (message sent).
+     * @throws IOException If encoding fails.
+     */
+    Lease getOrEncode(final String key, final Encoder encoder) throws IOException {
+        synchronized (this) {
+            final Entry entry = m_entries.get(key);
+            if (entry != null) {
+                m_hitCount += 1;
+                return entry.lease();
+            }
+            m_missCount += 1;
+        }
+        // encode outside the lock, a concurrent miss on the same key only costs duplicate work
+        final Entry newEntry = encode(encoder);
+        synchronized (this) {
+            final Entry existing = m_entries.get(key);
+            if (existing != null) {
+                final Lease lease = existing.lease();
+                newEntry.evict();
+                return lease;
+            }
+            final Lease lease = newEntry.lease();
+            if (newEntry.m_size <= m_capacity) {
+                m_entries.put(key, newEntry);
+                m_size += newEntry.m_size;
+                evictIfNeeded();
+            } else {
+                // too large to be cached, content is deleted once the lease is closed
+                newEntry.evict();
+            }
+            return lease;
+        }
+    }
+
+    /**
+     * Encodes the content without caching it, used for content that can't be addressed reliably (e.g. remote files
+     * without modification time).
+     *
+     * @param encoder Called to encode the content.
+     * @return A lease on the encoded content, the content is deleted once the lease is closed.
+     * @throws IOException If encoding fails.
+     */
+    Lease encodeUncached(final Encoder encoder) throws IOException {
+        final Entry entry = encode(encoder);
+        final Lease lease = entry.lease();
+        entry.evict();
+        return lease;
+    }
+
+    private Entry encode(final Encoder encoder) throws IOException {
+        final var out = new SpillableOutputStream();
+        try (out) {
+            encoder.encodeTo(out);
+        } catch (IOException | RuntimeException e) {
+            out.discard();
+            throw e;
+        }
+        return out.toEntry();
+    }
+
+    private void evictIfNeeded() {
+        final Iterator<Entry> it = m_entries.values().iterator();
+        while (m_size > m_capacity && it.hasNext()) {
+            final Entry eldest = it.next();
+            it.remove();
+            m_size -= eldest.m_size;
+            eldest.evict();
+        }
+    }
+
+    private synchronized File getSpillDir() throws IOException {
+        if (m_spillDir == null || !m_spillDir.isDirectory()) {
+            m_spillDir = FileUtil.createTempDir("email-encoded-parts");
+        }
+        return m_spillDir;
+    }
+
+    /** @return number of cached entries */
+    synchronized int getEntryCount() {
+        return m_entries.size();
+    }
+
+    /** @return total size of all cached entries in bytes */
+    synchronized long getSize() {
+        return m_size;
+    }
+
+    /** @return number of lookups served from the cache */
+    synchronized long getHitCount() {
+        return m_hitCount;
+    }
+
+    /** @return number of lookups that required encoding */
+    synchronized long getMissCount() {
+        return m_missCount;
+    }
+
+    /** Only used in tests to verify eviction. */
+    synchronized boolean contains(final String key) {
+        return m_entries.containsKey(key);
+    }
+
+    @Override
+    public synchronized void dispose() {
+        LOGGER.debugWithFormat("Disposing encoded part cache (%d element(s), %d bytes, %d hit(s), %d miss(es))",
+            m_entries.size(), m_size, m_hitCount, m_missCount);
+        m_entries.values().forEach(Entry::evict);
+        m_entries.clear();
+        m_size = 0;
+        if (m_spillDir != null) {
+            FileUtils.deleteQuietly(m_spillDir);
+            m_spillDir = null;
+        }
+    }
+
+    /** Handle on encoded content, see class description. */
+    static final class Lease implements AutoCloseable {
+
+        private final Entry m_entry;
+
+        private boolean m_isClosed;
+
+        private Lease(final Entry entry) {
+            m_entry = entry;
+        }
+
+        /** @return size of the encoded content in bytes */
+        long size() {
+            return m_entry.m_size;
+        }
+
+        /** @return a new stream on the encoded content */
+        InputStream openStream() throws IOException {
+            if (m_entry.m_bytes != null) {
+                return new ByteArrayInputStream(m_entry.m_bytes);
+            }
+            return Files.newInputStream(m_entry.m_file);
+        }
+
+        /**
+         * @param contentType the content type reported by the data source
+         * @param name the name reported by the data source
+         * @return a read-only data source on the encoded content
+         */
+        DataSource toDataSource(final String contentType, final String name) {
+            return new DataSource() {
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    return openStream();
+                }
+
+                @Override
+                public OutputStream getOutputStream() throws IOException {
+                    throw new IOException("Encoded content is read-only");
+                }
+
+                @Override
+                public String getContentType() {
+                    return contentType;
+                }
+
+                @Override
+                public String getName() {
+                    return name;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            synchronized (m_entry) {
+                if (!m_isClosed) {
+                    m_isClosed = true;
+                    m_entry.release();
+                }
+            }
+        }
+    }
+
+    /** Cached content, either in memory (bytes) or spilled to a file. */
+    private static final class Entry {
+
+        private final byte[] m_bytes;
+
+        private final Path m_file;
+
+        private final long m_size;
+
+        private int m_leaseCount;
+
+        private boolean m_isEvicted;
+
+        private Entry(final byte[] bytes, final Path file, final long size) {
+            m_bytes = bytes;
+            m_file = file;
+            m_size = size;
+        }
+
+        private synchronized Lease lease() {
+            m_leaseCount += 1;
+            return new Lease(this);
+        }
+
+        private synchronized void release() {
+            m_leaseCount -= 1;
+            deleteFileIfUnused();
+        }
+
+        private synchronized void evict() {
+            m_isEvicted = true;
+            deleteFileIfUnused();
+        }
+
+        private void deleteFileIfUnused() {
+            if (m_isEvicted && m_leaseCount == 0 && m_file != null) {
+                FileUtils.deleteQuietly(m_file.toFile());
+            }
+        }
+    }
+
+    /** Collects encoded bytes in memory and switches to a temp file once the in-memory threshold is exceeded. */
+    private final class SpillableOutputStream extends OutputStream {
+
+        private ByteArrayOutputStream m_memory = new ByteArrayOutputStream();
+
+        private OutputStream m_fileOut;
+
+        private Path m_file;
+
+        private long m_count;
+
+        @Override
+        public void write(final int b) throws IOException {
+            ensureCapacity(1).write(b);
+            m_count += 1;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            ensureCapacity(len).write(b, off, len);
+            m_count += len;
+        }
+
+        private OutputStream ensureCapacity(final int len) throws IOException {
+            if (m_fileOut == null && m_count + len > m_maxInMemoryEntryBytes) {
+                m_file = Files.createTempFile(getSpillDir().toPath(), "part", ".b64");
+                m_fileOut = Files.newOutputStream(m_file);
+                m_memory.writeTo(m_fileOut);
+                m_memory = null;
+            }
+            return m_fileOut != null ? m_fileOut : m_memory;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (m_fileOut != null) {
+                m_fileOut.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (m_fileOut != null) {
+                m_fileOut.close();
+            }
+        }
+
+        private void discard() {
+            if (m_file != null) {
+                FileUtils.deleteQuietly(m_file.toFile());
+            }
+        }
+
+        private Entry toEntry() {
+            return m_file != null ? new Entry(null, m_file, m_count) : new Entry(m_memory.toByteArray(), null, m_count);
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sender;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.blob.BinaryObjectDataValue;
+import org.knime.filehandling.core.connections.FSLocation;
+import org.knime.filehandling.core.data.location.FSLocationValue;
+
+import jakarta.activation.DataSource;
+import jakarta.activation.FileTypeMap;
+
+/**
+ * An attachment as defined by a row in the attachment input table, either the location of a file (path column) or the
+ * content of a binary object or string cell. The latter is streamed into the message, it's not written to disk.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+sealed interface InputAttachment {
+
+    /**
+     * @param type the type of the attachment column
+     * @return whether attachments can be read from columns of that type
+     */
+    static boolean isSupportedType(final DataType type) {
+        return type.isCompatible(FSLocationValue.class) || type.isCompatible(BinaryObjectDataValue.class)
+            || type.isCompatible(StringValue.class);
+    }
+
+    /**
+     * @param cell the non-missing cell of the attachment column
+     * @param fileName the file name as per file name column, or null to use a default name
+     * @param index the index of the attachment, used in the default name
+     * @return the attachment
+     */
+    static InputAttachment fromCell(final DataCell cell, final String fileName, final long index) {
+        if (cell instanceof FSLocationValue locationValue) {
+            return new LocationAttachment(locationValue.getFSLocation());
+        }
+        final var extension = cell instanceof BinaryObjectDataValue ? ".bin" : ".txt";
+        return new CellAttachment(fileName != null ? fileName : ("attachment-" + index + extension), cell);
+    }
+
+    /**
+     * A file attachment.
+     *
+     * @param location the location of the file
+     */
+    record LocationAttachment(FSLocation location) implements InputAttachment {
+    }
+
+    /**
+     * Content of a binary object or string cell.
+     *
+     * @param fileName the name of the attachment
+     * @param cell the binary object or string cell
+     */
+    record CellAttachment(String fileName, DataCell cell) implements InputAttachment {
+
+        /** @return whether the content is binary (and hence base64 encoded) */
+        boolean isBinary() {
+            return cell instanceof BinaryObjectDataValue;
+        }
+
+        /** @return the content type derived from the file name, text/plain for strings of unknown type */
+        String getContentType() {
+            final String contentType = FileTypeMap.getDefaultFileTypeMap().getContentType(fileName);
+            if (isBinary()) {
+                return contentType;
+            }
+            return contentType.startsWith("text/") ? (contentType + "; charset=UTF-8") : "text/plain; charset=UTF-8";
+        }
+
+        /** @return a data source reading the content from the cell (each time the message is written) */
+        DataSource toDataSource() {
+            return new DataSource() {
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    if (cell instanceof BinaryObjectDataValue binaryValue) {
+                        return binaryValue.openInputStream();
+                    }
+                    return new ByteArrayInputStream(
+                        ((StringValue)cell).getStringValue().getBytes(StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public OutputStream getOutputStream() throws IOException {
+                    throw new IOException("Attachment content is read-only");
+                }
+
+                @Override
+                public String getContentType() {
+                    return CellAttachment.this.getContentType();
+                }
+
+                @Override
+                public String getName() {
+                    return fileName;
+                }
+            };
+        }
+    }
+}
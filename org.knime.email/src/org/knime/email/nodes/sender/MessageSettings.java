@@ -54,14 +54,18 @@
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.apache.commons.lang3.StringUtils;
+import org.knime.core.data.DataCell;
 import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.container.CloseableRowIterator;
 import org.knime.core.data.container.filter.TableFilter;
-import org.knime.core.data.v2.RowCursor;
-import org.knime.core.data.v2.RowRead;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
@@ -80,6 +84,7 @@
 import org.knime.node.parameters.WidgetGroup;
 import org.knime.node.parameters.array.ArrayWidget;
 import org.knime.node.parameters.array.ArrayWidget.ElementLayout;
+import org.knime.node.parameters.migration.Migrate;
 import org.knime.node.parameters.persistence.Persistable;
 import org.knime.node.parameters.updates.Effect;
 import org.knime.node.parameters.updates.Effect.EffectType;
@@ -130,7 +135,16 @@ static final class AttachmentColumnProvider implements ColumnChoicesProvider {
         public List<DataColumnSpec> columnChoices(final NodeParametersInput context) {
             final PortType[] inTypes = context.getInPortTypes();
             final IntFunction<? extends Optional<PortObjectSpec>> specSupplier = context::getInPortSpec;
-            return getValidPathColumnNames(inTypes, specSupplier).stream().flatMap(Arrays::stream).toList();
+            return getValidAttachmentColumns(inTypes, specSupplier).stream().flatMap(Arrays::stream).toList();
+        }
+    }
+
+    static final class AttachmentFileNameColumnProvider implements ColumnChoicesProvider {
+        @Override
+        public List<DataColumnSpec> columnChoices(final NodeParametersInput context) {
+            final PortType[] inTypes = context.getInPortTypes();
+            final IntFunction<? extends Optional<PortObjectSpec>> specSupplier = context::getInPortSpec;
+            return getValidFileNameColumns(inTypes, specSupplier).stream().flatMap(Arrays::stream).toList();
         }
     }
 
@@ -189,12 +203,22 @@ tag is removed (stripped) from the value.
     Attachment[] m_attachments = new Attachment[]{};
 
     @Widget(title = "Attachments (Input Column)",
-        description = "The column in the attachment input table, if enabled, "
-            + "containing the list of attachment locations (the column needs to be of type \"path\".")
+        description = "The column in the attachment input table, if enabled, containing the attachments. "
+            + "The column is either of type \"path\" (list of attachment locations) or it's a binary object or "
+            + "string column, whose content is attached directly (without writing it to a file first).")
     @Effect(predicate = AttachmentPortIsConnected.class, type = EffectType.SHOW)
     @ChoicesProvider(AttachmentColumnProvider.class)
     String m_attachmentColumn;
 
+    @Widget(title = "Attachment file names (Input Column)",
+        description = "The string column in the attachment input table containing the file names of attachments "
+            + "read from a binary object or string column. The file name also determines the content type "
+            + "of the attachment. If not set or missing, the attachments are named \"attachment-&lt;index&gt;\".")
+    @Effect(predicate = AttachmentPortIsConnected.class, type = EffectType.SHOW)
+    @ChoicesProvider(AttachmentFileNameColumnProvider.class)
+    @Migrate(loadDefaultIfAbsent = true)
+    String m_attachmentFileNameColumn;
+
     @Override
     public void validate() throws InvalidSettingsException {
         CheckUtils.checkSettingNotNull(m_subject, "Subject must not be null");
@@ -206,20 +230,28 @@ void validateDuringConfiguration(final PortType[] inTypes,
         final IntFunction<? extends Optional<PortObjectSpec>> specSupplier) throws InvalidSettingsException {
         validate();
         if (m_attachmentColumn != null) {
-            final Optional<DataColumnSpec[]> validPathColumns = getValidPathColumnNames(inTypes, specSupplier);
-            CheckUtils.checkSetting(validPathColumns.isEmpty() || //
-                Stream.of(validPathColumns.get()).map(DataColumnSpec::getName).anyMatch(m_attachmentColumn::equals),
-                "Selected path column ('%s') not present in attachment input column or not of correct (path) type",
+            final Optional<DataColumnSpec[]> validColumns = getValidAttachmentColumns(inTypes, specSupplier);
+            CheckUtils.checkSetting(validColumns.isEmpty() || //
+                Stream.of(validColumns.get()).map(DataColumnSpec::getName).anyMatch(m_attachmentColumn::equals),
+                "Selected attachment column ('%s') not present in attachment input table or not of correct type "
+                    + "(path, binary object or string)",
                 m_attachmentColumn);
         }
+        if (m_attachmentFileNameColumn != null) {
+            final Optional<DataColumnSpec[]> validColumns = getValidFileNameColumns(inTypes, specSupplier);
+            CheckUtils.checkSetting(validColumns.isEmpty() || //
+                Stream.of(validColumns.get()).map(DataColumnSpec::getName).anyMatch(m_attachmentFileNameColumn::equals),
+                "Selected file name column ('%s') not present in attachment input table or not of type string",
+                m_attachmentFileNameColumn);
+        }
     }
 
     /**
-     * Checks presence of input table. If there is a table, it contains a non-empty optional with the list of selected
-     * locations (possibly empty, e.g. when no column was selected). The result is empty if, and only if, there is no
+     * Checks presence of input table. If there is a table, it contains a non-empty optional with the list of
+     * attachments (possibly empty, e.g. when no column was selected). The result is empty if, and only if, there is no
      * input type available (dynamic port not shown).
      */
-    Optional<FSLocation[]> readAttachmentsFromInputTable(final PortType[] inTypes, final ExecutionContext exec,
+    Optional<List<InputAttachment>> readAttachmentsFromInputTable(final PortType[] inTypes, final ExecutionContext exec,
         final PortObject[] inObjects) throws CanceledExecutionException {
         final OptionalInt attachmentPort =
             IntStream.range(0, inTypes.length).filter(i -> BufferedDataTable.TYPE.equals(inTypes[i])).findFirst();
@@ -231,41 +263,66 @@ Optional<FSLocation[]> readAttachmentsFromInputTable(final PortType[] inTypes, f
             final BufferedDataTable attachmentTable = (BufferedDataTable)inObjects[attachmentPort.getAsInt()];
             final DataTableSpec attachmentSpec = attachmentTable.getSpec();
             final int attachmentColIndex = attachmentSpec.findColumnIndex(m_attachmentColumn);
-            final FSLocation[] fsLocations = readAttachmentsFromColumn(exec, attachmentTable, attachmentColIndex);
-            return Optional.of(fsLocations);
+            final int fileNameColIndex =
+                m_attachmentFileNameColumn == null ? -1 : attachmentSpec.findColumnIndex(m_attachmentFileNameColumn);
+            return Optional.of(readAttachmentsFromColumn(exec, attachmentTable, attachmentColIndex, fileNameColIndex));
         }
-        return Optional.of(new FSLocation[]{});
+        return Optional.of(List.of());
     }
 
-    private static FSLocation[] readAttachmentsFromColumn(final ExecutionContext exec,
-        final BufferedDataTable attachmentTable, final int attachmentColIndex) throws CanceledExecutionException {
-        final List<FSLocation> attachments = new ArrayList<>();
-        try (final RowCursor cursor = attachmentTable.cursor(TableFilter.materializeCols(attachmentColIndex))) {
-            while (cursor.canForward()) {
+    /**
+     * Reads the attachment cells. Binary object and string cells are kept as cells (their content is streamed into the
+     * message), hence the row iterator rather than a cursor, whose values are only valid until it's forwarded.
+     */
+    private static List<InputAttachment> readAttachmentsFromColumn(final ExecutionContext exec,
+        final BufferedDataTable attachmentTable, final int attachmentColIndex, final int fileNameColIndex)
+        throws CanceledExecutionException {
+        final List<InputAttachment> attachments = new ArrayList<>();
+        final int[] colIndices = fileNameColIndex < 0 ? new int[]{attachmentColIndex}
+            : new int[]{attachmentColIndex, fileNameColIndex};
+        try (final CloseableRowIterator it = attachmentTable.filter(TableFilter.materializeCols(colIndices))) {
+            while (it.hasNext()) {
                 exec.checkCanceled();
-                final RowRead read = cursor.forward();
-                if (!read.isMissing(attachmentColIndex)) {
-                    attachments.add(read.<FSLocationValue> getValue(attachmentColIndex).getFSLocation());
+                final DataRow row = it.next();
+                final DataCell cell = row.getCell(attachmentColIndex);
+                if (!cell.isMissing()) {
+                    final DataCell fileNameCell = fileNameColIndex < 0 ? null : row.getCell(fileNameColIndex);
+                    final String fileName = fileNameCell == null || fileNameCell.isMissing() ? null
+                        : StringUtils.defaultIfBlank(((StringValue)fileNameCell).getStringValue(), null);
+                    attachments.add(InputAttachment.fromCell(cell, fileName, attachments.size()));
                 }
             }
         }
-        return attachments.toArray(FSLocation[]::new);
+        return attachments;
     }
 
     /**
      * Utility to extract from the inputs the attachment port (which may or may not be present) and then return the list
      * of valid path columns.
      */
-    private static Optional<DataColumnSpec[]> getValidPathColumnNames(final PortType[] inTypes,
+    private static Optional<DataColumnSpec[]> getValidAttachmentColumns(final PortType[] inTypes,
+        final IntFunction<? extends Optional<PortObjectSpec>> specSupplier) {
+        return getAttachmentTableColumns(inTypes, specSupplier,
+            col -> InputAttachment.isSupportedType(col.getType()));
+    }
+
+    /** As {@link #getValidAttachmentColumns(PortType[], IntFunction)} but for the (string) file name column. */
+    private static Optional<DataColumnSpec[]> getValidFileNameColumns(final PortType[] inTypes,
         final IntFunction<? extends Optional<PortObjectSpec>> specSupplier) {
+        return getAttachmentTableColumns(inTypes, specSupplier, col -> col.getType().isCompatible(StringValue.class)
+            && !col.getType().isCompatible(FSLocationValue.class));
+    }
+
+    private static Optional<DataColumnSpec[]> getAttachmentTableColumns(final PortType[] inTypes,
+        final IntFunction<? extends Optional<PortObjectSpec>> specSupplier, final Predicate<DataColumnSpec> filter) {
         final OptionalInt attachmentPort =
             IntStream.range(0, inTypes.length).filter(i -> BufferedDataTable.TYPE.equals(inTypes[i])).findFirst();
         if (attachmentPort.isEmpty()) {
             return Optional.empty();
         }
         return Optional.of(attachmentPort.stream().mapToObj(specSupplier).flatMap(Optional::stream)
-            .map(DataTableSpec.class::cast).flatMap(DataTableSpec::stream)
-            .filter(col -> col.getType().isCompatible(FSLocationValue.class)).toArray(DataColumnSpec[]::new));
+            .map(DataTableSpec.class::cast).flatMap(DataTableSpec::stream).filter(filter)
+            .toArray(DataColumnSpec[]::new));
     }
 
 }
@@ -0,0 +1,246 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.knime.base.util.flowvariable.FlowVariableProvider;
+import org.knime.base.util.flowvariable.FlowVariableResolver;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.email.nodes.sender.MessageSettings.EMailFormat;
+import org.owasp.html.HtmlPolicyBuilder;
+import org.owasp.html.PolicyFactory;
+
+/**
+ * The message of an Email Sender, compiled once per configuration into literal segments and flow variable slots
+ * (placeholders as per {@link FlowVariableResolver}, e.g. <code>$${Sname}$$</code>).
+ *
+ * <p>
+ * Rendering a message concatenates the literals with the current flow variable values. Since flow variable values are
+ * allowed to contain html, the result still needs to be sanitized and parsed. This (and the conversion to the final
+ * html or plain text content) is done only if the resolved message differs from the one rendered previously, e.g. a
+ * message without placeholders or with unchanged variables in a loop is sanitized and parsed only once.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class MessageTemplate {
+
+    /**
+     * Message body is sanitized, currently a copy of the policy defined in
+     * {@link org.knime.core.data.html.HTMLValueRenderer}, see also UIEXT-1672.
+     */
+    private static final PolicyFactory POLICY = new HtmlPolicyBuilder()
+            .allowCommonInlineFormattingElements()
+            .allowStandardUrlProtocols()
+            .allowCommonBlockElements()
+            .allowStyling()
+            .allowElements("a", "hr", "pre", "code")
+            .allowAttributes("href").onElements("a")
+            .toFactory();
+
+    /** Placeholder syntax as understood by {@link FlowVariableResolver#parse(String, FlowVariableProvider)}. */
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\$\\$\\{[IDS][^}]+\\}\\$\\$");
+
+    /** Literal segments, one more than there are slots (possibly empty strings). */
+    private final String[] m_literals;
+
+    /** Placeholders, slot i is between literal i and i + 1. */
+    private final String[] m_slots;
+
+    private final EMailFormat m_format;
+
+    private final int m_literalLength;
+
+    private String m_lastResolvedHtml;
+
+    private RenderedMessage m_lastRenderedMessage;
+
+    private MessageTemplate(final String[] literals, final String[] slots, final EMailFormat format) {
+        m_literals = literals;
+        m_slots = slots;
+        m_format = format;
+        var literalLength = 0;
+        for (String literal : literals) {
+            literalLength += literal.length();
+        }
+        m_literalLength = literalLength;
+    }
+
+    /**
+     * Compiles the message as per settings.
+     *
+     * @param messageSettings the settings, not null.
+     * @return a new template
+     */
+    static MessageTemplate compile(final MessageSettings messageSettings) {
+        return compile(StringUtils.defaultString(messageSettings.m_message), messageSettings.m_format);
+    }
+
+    static MessageTemplate compile(final String rawMessageHTML, final EMailFormat format) {
+        final List<String> literals = new ArrayList<>();
+        final List<String> slots = new ArrayList<>();
+        final Matcher matcher = PLACEHOLDER_PATTERN.matcher(rawMessageHTML);
+        var literalStart = 0;
+        while (matcher.find()) {
+            literals.add(rawMessageHTML.substring(literalStart, matcher.start()));
+            slots.add(matcher.group());
+            literalStart = matcher.end();
+        }
+        literals.add(rawMessageHTML.substring(literalStart));
+        return new MessageTemplate(literals.toArray(String[]::new), slots.toArray(String[]::new), format);
+    }
+
+    /** @return number of flow variable placeholders in the message */
+    int getSlotCount() {
+        return m_slots.length;
+    }
+
+    /**
+     * Renders the message with the current values of the flow variables.
+     *
+     * @param flowVarResolver The resolver for the flow variables (= NodeModel)
+     * @return The message, flow variable placeholders replaced by their respective value.
+     * @throws InvalidSettingsException If a flow variable could not be resolved.
+     */
+    synchronized RenderedMessage render(final FlowVariableProvider flowVarResolver) throws InvalidSettingsException {
+        final String resolvedHtml = resolve(flowVarResolver);
+        if (m_lastRenderedMessage == null || !resolvedHtml.equals(m_lastResolvedHtml)) {
+            final Document messageDoc = Jsoup.parse(POLICY.sanitize(resolvedHtml));
+            m_lastRenderedMessage = new RenderedMessage(messageDoc, m_format);
+            m_lastResolvedHtml = resolvedHtml;
+        }
+        return m_lastRenderedMessage;
+    }
+
+    private String resolve(final FlowVariableProvider flowVarResolver) throws InvalidSettingsException {
+        if (m_slots.length == 0) {
+            return m_literals[0];
+        }
+        final String[] values = new String[m_slots.length];
+        var length = m_literalLength;
+        for (var i = 0; i < m_slots.length; i++) {
+            try {
+                values[i] = FlowVariableResolver.parse(m_slots[i], flowVarResolver);
+            } catch (NoSuchElementException nse) {
+                throw new InvalidSettingsException(
+                    "A flow variable could not be resolved due to \"" + nse.getMessage() + "\".", nse);
+            }
+            length += values[i].length();
+        }
+        final var resolved = new StringBuilder(length);
+        for (var i = 0; i < m_slots.length; i++) {
+            resolved.append(m_literals[i]).append(values[i]);
+        }
+        return resolved.append(m_literals[m_slots.length]).toString();
+    }
+
+    /**
+     * A sanitized and parsed message, shared by all sends with the same resolved message. The document must not be
+     * modified, use {@link #copyDocument()} to obtain a modifiable copy.
+     */
+    static final class RenderedMessage {
+
+        private final Document m_document;
+
+        private final EMailFormat m_format;
+
+        private String m_htmlContent;
+
+        private String m_plainTextContent;
+
+        private Boolean m_isBlank;
+
+        private RenderedMessage(final Document document, final EMailFormat format) {
+            m_document = document;
+            m_format = format;
+        }
+
+        /** @return the format as per settings */
+        EMailFormat format() {
+            return m_format;
+        }
+
+        /** @return a copy of the message document, can be modified (e.g. to merge it into a report) */
+        Document copyDocument() {
+            return m_document.clone();
+        }
+
+        /** @return true if the message has no text */
+        synchronized boolean isBlank() {
+            if (m_isBlank == null) {
+                m_isBlank = StringUtils.isBlank(m_document.text());
+            }
+            return m_isBlank;
+        }
+
+        /**
+         * @param isHtml whether to return html or plain text content
+         * @return The content of the message body, computed once.
+         */
+        synchronized String content(final boolean isHtml) {
+            if (isHtml) {
+                if (m_htmlContent == null) {
+                    m_htmlContent = m_document.html();
+                }
+                return m_htmlContent;
+            }
+            if (m_plainTextContent == null) {
+                m_plainTextContent = MessageUtil.documentToPlainText(m_document);
+            }
+            return m_plainTextContent;
+        }
+    }
+}
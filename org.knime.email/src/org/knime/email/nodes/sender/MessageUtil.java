@@ -80,9 +80,6 @@ static String documentToPlainText(final Document document) {
         return formatter.toString();
     }
 
-    record DocumentAndContentType(Document messageDocument, MessageSettings.EMailFormat format) {
-    }
-
     static String contentType(final boolean isHtml) {
         if (isHtml) {
             return "text/html; charset=\"utf-8\"";
@@ -0,0 +1,204 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sender;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.knime.core.node.InvalidSettingsException;
+
+import jakarta.mail.internet.InternetAddress;
+
+/**
+ * Recipient allow-list as per system property {@value EmailSender#PROPERTY_ALLOWED_RECIPIENT_DOMAINS}, compiled once
+ * (per property value) into hash sets. An entry of the comma separated list is either
+ * <ul>
+ * <li>a domain, e.g. <code>foo.com</code>, allowing addresses of that domain and of all its subdomains (e.g.
+ * <code>a@foo.com</code>, <code>b@mail.foo.com</code> but not <code>c@barfoo.com</code>),</li>
+ * <li>a domain prefixed by '@', e.g. <code>@foo.com</code>, allowing addresses of exactly that domain,</li>
+ * <li>a domain prefixed by '.', e.g. <code>.foo.com</code>, allowing addresses of subdomains only, or</li>
+ * <li>a complete address, e.g. <code>jane.doe@foo.com</code>.</li>
+ * </ul>
+ * Matching is case insensitive. Checking an address costs a hash lookup per label of its domain, independent of the
+ * length of the list.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class RecipientDomainPolicy {
+
+    /** Allows all recipients, used if the system property is not set. */
+    private static final RecipientDomainPolicy ALLOW_ALL = new RecipientDomainPolicy(null);
+
+    private static RecipientDomainPolicy cachedPolicy = ALLOW_ALL;
+
+    private final String m_propertyValue;
+
+    private final Set<String> m_domainsAndSubdomains = new HashSet<>();
+
+    private final Set<String> m_exactDomains = new HashSet<>();
+
+    private final Set<String> m_subdomainsOnly = new HashSet<>();
+
+    private final Set<String> m_addresses = new HashSet<>();
+
+    private RecipientDomainPolicy(final String propertyValue) {
+        m_propertyValue = propertyValue;
+        for (String entry : StringUtils.split(StringUtils.defaultString(propertyValue), ',')) {
+            final String e = entry.trim().toLowerCase(Locale.ROOT);
+            if (e.isEmpty()) {
+                continue;
+            }
+            if (e.charAt(0) == '@') {
+                m_exactDomains.add(e.substring(1));
+            } else if (e.indexOf('@') >= 0) {
+                m_addresses.add(e);
+            } else if (e.charAt(0) == '.') {
+                m_subdomainsOnly.add(e.substring(1));
+            } else {
+                m_domainsAndSubdomains.add(e);
+            }
+        }
+    }
+
+    /**
+     * @return the policy as per current value of the system property, compiled only if the property value changed.
+     */
+    static synchronized RecipientDomainPolicy getInstance() {
+        final String propertyValue = System.getProperty(EmailSender.PROPERTY_ALLOWED_RECIPIENT_DOMAINS);
+        if (StringUtils.isBlank(propertyValue)) {
+            return ALLOW_ALL;
+        }
+        if (!Objects.equals(propertyValue, cachedPolicy.m_propertyValue)) {
+            cachedPolicy = new RecipientDomainPolicy(propertyValue);
+        }
+        return cachedPolicy;
+    }
+
+    /** Only to be used in tests. */
+    static RecipientDomainPolicy compile(final String propertyValue) {
+        return StringUtils.isBlank(propertyValue) ? ALLOW_ALL : new RecipientDomainPolicy(propertyValue);
+    }
+
+    /** @return true if no restrictions apply (property not set or empty). */
+    boolean isAllowAll() {
+        return m_domainsAndSubdomains.isEmpty() && m_exactDomains.isEmpty() && m_subdomainsOnly.isEmpty()
+            && m_addresses.isEmpty();
+    }
+
+    /**
+     * @param address the address, e.g. <code>jane.doe@foo.com</code>
+     * @return whether the address is allowed
+     */
+    boolean isAllowed(final String address) {
+        if (isAllowAll()) {
+            return true;
+        }
+        final String lowerCaseAddress = StringUtils.defaultString(address).toLowerCase(Locale.ROOT);
+        if (m_addresses.contains(lowerCaseAddress)) {
+            return true;
+        }
+        final int at = lowerCaseAddress.lastIndexOf('@');
+        if (at < 0) {
+            return false;
+        }
+        final String domain = lowerCaseAddress.substring(at + 1);
+        if (m_exactDomains.contains(domain) || m_domainsAndSubdomains.contains(domain)) {
+            return true;
+        }
+        // walk the parent domains, e.g. mail.foo.com -> foo.com -> com
+        for (int dot = domain.indexOf('.'); dot >= 0; dot = domain.indexOf('.', dot + 1)) {
+            final String parent = domain.substring(dot + 1);
+            if (m_domainsAndSubdomains.contains(parent) || m_subdomainsOnly.contains(parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Validates all addresses in one pass.
+     *
+     * @param addresses the addresses to validate (e.g. To, CC, BCC and Reply-To)
+     * @throws InvalidSettingsException listing all addresses that are not allowed, if any
+     */
+    void validate(final Collection<InternetAddress> addresses) throws InvalidSettingsException {
+        if (isAllowAll()) {
+            return;
+        }
+        final List<String> rejected = new ArrayList<>();
+        for (InternetAddress a : addresses) {
+            final String address = a.getAddress();
+            if (address == null) {
+                // e.g. a group or malformed address, there is no domain to check
+                rejected.add(a.toString());
+            } else if (!isAllowed(address)) {
+                rejected.add(address.toLowerCase(Locale.ROOT));
+            }
+        }
+        if (rejected.size() == 1) {
+            throw new InvalidSettingsException(String.format(
+                "Recipient '%s' is not valid as the domain is not in the allowed list. "
+                    + "Check the system property \"%s\", which currently lists %s.",
+                rejected.get(0), EmailSender.PROPERTY_ALLOWED_RECIPIENT_DOMAINS, m_propertyValue));
+        } else if (!rejected.isEmpty()) {
+            throw new InvalidSettingsException(String.format(
+                "%d recipients are not valid as their domain is not in the allowed list: %s. "
+                    + "Check the system property \"%s\", which currently lists %s.",
+                rejected.size(), rejected.stream().map(r -> "'" + r + "'").collect(Collectors.joining(", ")),
+                EmailSender.PROPERTY_ALLOWED_RECIPIENT_DOMAINS, m_propertyValue));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sender;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.IOUtils;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.workflow.WorkflowResourceCache;
+import org.knime.core.node.workflow.WorkflowResourceCache.WorkflowResource;
+import org.knime.email.session.EmailIncomingSession;
+import org.knime.email.session.EmailSessionKey;
+
+import jakarta.mail.Flags;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.SharedFileInputStream;
+
+/**
+ * Workflow scoped service appending copies of sent messages to a folder of the incoming (IMAP) server, e.g. 'Sent'.
+ *
+ * <p>
+ * Messages are appended asynchronously by a single background thread, so that the SMTP transfer of further envelopes
+ * (or messages) isn't blocked by the IMAP append. The IMAP connection is parked in the session key afterwards
+ * (see {@link EmailSessionKey#park(EmailIncomingSession)}) and reused by subsequent appends (e.g. an Email Sender in a
+ * loop); the key closes it if it isn't used for a while or once the key itself is no longer used. Appends queued in the
+ * meantime (e.g. by nodes sending in parallel) are transferred as one batch on that connection.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class SentFolderAppender implements WorkflowResource {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(SentFolderAppender.class);
+
+    /** Maximum number of messages appended in one batch. */
+    private static final int MAX_BATCH_SIZE = 50;
+
+    private final ExecutorService m_executor = Executors.newSingleThreadExecutor(r -> {
+        final var thread = new Thread(r, "KNIME-Email-Sent-Folder-Appender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Pending appends, guarded by this. */
+    private final Deque<AppendRequest> m_pending = new ArrayDeque<>();
+
+    private SentFolderAppender() {
+    }
+
+    /** @return the instance associated with the workflow of the current node context. */
+    static SentFolderAppender getInstance() {
+        return WorkflowResourceCache.computeIfAbsent(SentFolderAppender.class, SentFolderAppender::new);
+    }
+
+    /**
+     * Queues the message for appending.
+     *
+     * @param sessionKey the session defining the incoming server
+     * @param folder the full name of the target folder
+     * @param messageFile the message (RFC 822 format); not deleted by this class, only read until the future completes
+     * @return a future completing once the message is appended (or completing exceptionally if appending failed)
+     */
+    CompletableFuture<Void> append(final EmailSessionKey sessionKey, final String folder, final File messageFile) {
+        final var request = new AppendRequest(sessionKey, folder, messageFile, new CompletableFuture<>());
+        synchronized (this) {
+            m_pending.add(request);
+        }
+        m_executor.execute(this::appendPending);
+        return request.m_future;
+    }
+
+    /** Appends the next batch of pending messages (same session and folder as the first pending message). */
+    private void appendPending() {
+        final List<AppendRequest> batch = new ArrayList<>();
+        synchronized (this) {
+            final AppendRequest first = m_pending.peekFirst();
+            if (first == null) { // already appended as part of a previous batch
+                return;
+            }
+            for (Iterator<AppendRequest> it = m_pending.iterator(); it.hasNext() && batch.size() < MAX_BATCH_SIZE;) {
+                final AppendRequest request = it.next();
+                if (request.m_sessionKey == first.m_sessionKey && request.m_folder.equals(first.m_folder)) {
+                    batch.add(request);
+                    it.remove();
+                }
+            }
+        }
+        final EmailSessionKey sessionKey = batch.get(0).m_sessionKey;
+        final String folder = batch.get(0).m_folder;
+        final List<SharedFileInputStream> streams = new ArrayList<>();
+        EmailIncomingSession session = null;
+        try {
+            final var messages = new Message[batch.size()];
+            for (var i = 0; i < messages.length; i++) {
+                final var in = new SharedFileInputStream(batch.get(i).m_messageFile);
+                streams.add(in);
+                messages[i] = new MimeMessage((Session)null, in);
+                messages[i].setFlag(Flags.Flag.SEEN, true);
+            }
+            final long start = System.currentTimeMillis();
+            // the connection parked by the previous batch, if still open
+            session = sessionKey.connectIncoming();
+            session.appendMessages(folder, messages);
+            LOGGER.debugWithFormat("Appended %d message(s) to folder '%s' in %d ms", messages.length, folder,
+                System.currentTimeMillis() - start);
+            sessionKey.park(session);
+            batch.forEach(request -> request.m_future.complete(null));
+        } catch (MessagingException | IOException | RuntimeException e) {
+            close(session); // possibly broken, reconnect with the next batch
+            batch.forEach(request -> request.m_future.completeExceptionally(e));
+        } finally {
+            streams.forEach(IOUtils::closeQuietly);
+        }
+    }
+
+    private static void close(final EmailIncomingSession session) {
+        if (session != null) {
+            try {
+                session.close();
+            } catch (MessagingException e) {
+                LOGGER.debug("Failed to close email session", e);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        m_executor.shutdownNow();
+        synchronized (this) {
+            m_pending.forEach(request -> request.m_future.cancel(false));
+            m_pending.clear();
+        }
+    }
+
+    private static final class AppendRequest {
+
+        private final EmailSessionKey m_sessionKey;
+
+        private final String m_folder;
+
+        private final File m_messageFile;
+
+        private final CompletableFuture<Void> m_future;
+
+        AppendRequest(final EmailSessionKey sessionKey, final String folder, final File messageFile,
+            final CompletableFuture<Void> future) {
+            m_sessionKey = sessionKey;
+            m_folder = folder;
+            m_messageFile = messageFile;
+            m_future = future;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sizeanalytics;
+
+import org.knime.core.node.NodeFactory;
+import org.knime.core.webui.node.impl.WebUINodeConfiguration;
+import org.knime.core.webui.node.impl.WebUINodeFactory;
+import org.knime.email.port.EmailSessionPortObject;
+
+/**
+ * {@link NodeFactory} for the Email Size Analytics node, which aggregates the number and size of messages per folder,
+ * sender and month.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@SuppressWarnings("restriction") // New Node UI is not yet API
+public final class EmailSizeAnalyticsNodeFactory extends WebUINodeFactory<EmailSizeAnalyticsNodeModel> {
+
+    private static final WebUINodeConfiguration CONFIG = WebUINodeConfiguration.builder()//
+        .name("Email Size Analytics (Labs)")//
+        .icon("./emailSizeAnalytics.png")//
+        .shortDescription("Aggregates the number and size of emails per folder, sender and month using a session "
+            + "provided by an Email Connector node.")//
+        .fullDescription("""
+                Aggregates the number and size of emails per folder, sender and month using a session provided
+                by an Email Connector node, e.g. to find out what fills up the quota of a mailbox.
+                <br/>
+                Only the envelope (sender, date and size) of the messages is retrieved, in large batches, and
+                aggregated while scanning the folders. Neither the content of the messages is downloaded nor is
+                a row per message created, which makes the node much cheaper than reading all messages with an
+                Email Reader and aggregating the result. The messages are not marked as read.""")//
+        .modelSettingsClass(EmailSizeAnalyticsNodeSettings.class)//
+        .nodeType(NodeType.Source)//
+        .addInputPort("Email Session", EmailSessionPortObject.TYPE, "The email session.")//
+        .addOutputTable("Size by Folder", "The number and total size in bytes of the messages per folder.")//
+        .addOutputTable("Size by Sender", "The number and total size in bytes of the messages per sender address, "
+            + "sorted by size (largest first).")//
+        .addOutputTable("Size by Month", "The number and total size in bytes of the messages per month (yyyy-MM) "
+            + "they were received in.")//
+        .sinceVersion(5, 9, 0).build();
+
+    /**
+     * Create a new factory instance (need this constructor for ser/de)
+     */
+    public EmailSizeAnalyticsNodeFactory() {
+        super(CONFIG);
+    }
+
+    @Override
+    public EmailSizeAnalyticsNodeModel createNodeModel() {
+        return new EmailSizeAnalyticsNodeModel(CONFIG, EmailSizeAnalyticsNodeSettings.class);
+    }
+}
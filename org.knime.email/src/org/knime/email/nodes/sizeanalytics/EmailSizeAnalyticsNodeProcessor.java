@@ -0,0 +1,286 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.nodes.sizeanalytics;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.angus.mail.imap.IMAPMessage;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.email.session.EmailIncomingSession;
+import org.knime.email.session.EmailSessionKey;
+
+import jakarta.mail.Address;
+import jakarta.mail.FetchProfile;
+import jakarta.mail.Folder;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+
+/**
+ * Aggregates the number and size of messages per folder, sender and month. Only the envelope of the messages is
+ * fetched (for IMAP: <tt>ENVELOPE INTERNALDATE RFC822.SIZE</tt>), in batches of {@value #FETCH_BATCH_SIZE} messages per
+ * FETCH command, and aggregated on the fly; neither message content nor one row per message is produced.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class EmailSizeAnalyticsNodeProcessor {
+
+    /** Number of messages whose envelopes are requested with a single FETCH command. */
+    static final int FETCH_BATCH_SIZE = 1000;
+
+    static final DataTableSpec FOLDER_SPEC = createSpec("Folder");
+
+    static final DataTableSpec SENDER_SPEC = createSpec("Sender");
+
+    static final DataTableSpec MONTH_SPEC = createSpec("Month");
+
+    private final EmailSessionKey m_mailSessionKey;
+
+    private final EmailSizeAnalyticsNodeSettings m_settings;
+
+    /** Aggregates ({count, size}), keyed by folder (in listing order), sender address and month (yyyy * 12 + mm). */
+    private final Map<String, long[]> m_byFolder = new LinkedHashMap<>();
+
+    private final Map<String, long[]> m_bySender = new HashMap<>();
+
+    private final Map<Integer, long[]> m_byMonth = new TreeMap<>();
+
+    /** The aggregate of the last month seen; messages are mostly in date order, saves the lookup (and boxing). */
+    private int m_lastMonth = Integer.MIN_VALUE;
+
+    private long[] m_lastMonthAggregate;
+
+    private BufferedDataTable m_folderTable;
+
+    private BufferedDataTable m_senderTable;
+
+    private BufferedDataTable m_monthTable;
+
+    /**
+     * @param mailSessionKey the session to use
+     * @param settings the node settings
+     */
+    public EmailSizeAnalyticsNodeProcessor(final EmailSessionKey mailSessionKey,
+        final EmailSizeAnalyticsNodeSettings settings) {
+        m_mailSessionKey = mailSessionKey;
+        m_settings = settings;
+    }
+
+    private static DataTableSpec createSpec(final String keyColumn) {
+        return new DataTableSpecCreator() //
+            .addColumns(new DataColumnSpecCreator(keyColumn, StringCell.TYPE).createSpec()) //
+            .addColumns(new DataColumnSpecCreator("Messages", LongCell.TYPE).createSpec()) //
+            .addColumns(new DataColumnSpecCreator("Size (Bytes)", LongCell.TYPE).createSpec()) //
+            .createSpec();
+    }
+
+    /**
+     * Scans the configured folders and creates the aggregate tables.
+     *
+     * @param exec the execution context
+     * @throws MessagingException if the messages cannot be retrieved
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    public void analyze(final ExecutionContext exec) throws MessagingException, CanceledExecutionException {
+        try (final EmailIncomingSession session = m_mailSessionKey.connectIncoming()) {
+            final List<String> folders =
+                m_settings.m_allFolders ? List.of(session.listFolders()) : List.of(m_settings.m_folder);
+            for (var i = 0; i < folders.size(); i++) {
+                final String folderName = folders.get(i);
+                final var subExec = exec.createSubExecutionContext(1.0 / folders.size());
+                exec.setMessage(() -> "Scanning " + folderName);
+                try (final Folder folder = session.openFolder(folderName)) {
+                    scanFolder(folder, subExec);
+                }
+                subExec.setProgress(1);
+            }
+        }
+        m_folderTable = createTable(exec, FOLDER_SPEC, m_byFolder);
+        m_senderTable = createTable(exec, SENDER_SPEC, sortBySize(m_bySender));
+        final Map<String, long[]> byMonth = new LinkedHashMap<>();
+        m_byMonth.forEach((month, aggregate) -> byMonth.put(toMonthString(month), aggregate));
+        m_monthTable = createTable(exec, MONTH_SPEC, byMonth);
+    }
+
+    private void scanFolder(final Folder folder, final ExecutionContext exec)
+        throws MessagingException, CanceledExecutionException {
+        final long[] folderAggregate = m_byFolder.computeIfAbsent(folder.getFullName(), k -> new long[2]);
+        final int count = folder.getMessageCount();
+        final var fetchProfile = new FetchProfile();
+        fetchProfile.add(FetchProfile.Item.ENVELOPE);
+        fetchProfile.add(FetchProfile.Item.SIZE);
+        for (var start = 1; start <= count; start += FETCH_BATCH_SIZE) {
+            exec.checkCanceled();
+            final int end = Math.min(count, start + FETCH_BATCH_SIZE - 1);
+            final Message[] batch = folder.getMessages(start, end);
+            try {
+                folder.fetch(batch, fetchProfile);
+                for (final Message message : batch) {
+                    if (!message.isExpunged()) {
+                        final int size = Math.max(0, message.getSize());
+                        add(folderAggregate, size);
+                        add(m_bySender.computeIfAbsent(getSender(message), k -> new long[2]), size);
+                        add(getMonthAggregate(message), size);
+                    }
+                }
+            } finally {
+                release(batch);
+            }
+            exec.setProgress(end / (double)count);
+        }
+    }
+
+    /**
+     * Drops the envelopes of the batch, which the folder would otherwise keep (in its messages) until it is closed,
+     * i.e. the memory would grow with the number of messages of the folder rather than the batch size.
+     */
+    private static void release(final Message[] batch) {
+        for (final Message message : batch) {
+            if (message instanceof IMAPMessage imapMessage) {
+                imapMessage.invalidateHeaders();
+            }
+        }
+    }
+
+    private static void add(final long[] aggregate, final int size) {
+        aggregate[0]++;
+        aggregate[1] += size;
+    }
+
+    private static String getSender(final Message message) throws MessagingException {
+        final Address[] from = message.getFrom();
+        if (from == null || from.length == 0) {
+            return null;
+        }
+        final Address sender = from[0];
+        return sender instanceof InternetAddress internetAddress && internetAddress.getAddress() != null
+            ? internetAddress.getAddress().toLowerCase(Locale.ROOT) : sender.toString();
+    }
+
+    private long[] getMonthAggregate(final Message message) throws MessagingException {
+        final Date date = message.getReceivedDate() != null ? message.getReceivedDate() : message.getSentDate();
+        final int month;
+        if (date == null) {
+            month = -1;
+        } else {
+            final var localDate = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            month = localDate.getYear() * 12 + localDate.getMonthValue() - 1;
+        }
+        if (month != m_lastMonth) {
+            m_lastMonth = month;
+            m_lastMonthAggregate = m_byMonth.computeIfAbsent(month, k -> new long[2]);
+        }
+        return m_lastMonthAggregate;
+    }
+
+    private static String toMonthString(final int month) {
+        return month < 0 ? null : "%04d-%02d".formatted(month / 12, month % 12 + 1);
+    }
+
+    private static Map<String, long[]> sortBySize(final Map<String, long[]> aggregates) {
+        final List<Map.Entry<String, long[]>> entries = new ArrayList<>(aggregates.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]));
+        final Map<String, long[]> sorted = new LinkedHashMap<>();
+        entries.forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+
+    private static BufferedDataTable createTable(final ExecutionContext exec, final DataTableSpec spec,
+        final Map<String, long[]> aggregates) {
+        final var container = exec.createDataContainer(spec);
+        long rowIndex = 0;
+        for (final Map.Entry<String, long[]> entry : aggregates.entrySet()) {
+            final DataCell key = entry.getKey() == null ? DataType.getMissingCell() : new StringCell(entry.getKey());
+            container.addRowToTable(new DefaultRow(RowKey.createRowKey(rowIndex++), key,
+                new LongCell(entry.getValue()[0]), new LongCell(entry.getValue()[1])));
+        }
+        container.close();
+        return container.getTable();
+    }
+
+    /**
+     * @return the number and size of messages per folder
+     */
+    public BufferedDataTable getFolderTable() {
+        return m_folderTable;
+    }
+
+    /**
+     * @return the number and size of messages per sender address, largest first
+     */
+    public BufferedDataTable getSenderTable() {
+        return m_senderTable;
+    }
+
+    /**
+     * @return the number and size of messages per month (yyyy-MM) of their receipt
+     */
+    public BufferedDataTable getMonthTable() {
+        return m_monthTable;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.session;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import org.knime.core.node.NodeLogger;
+import org.knime.credentials.base.oauth.api.AccessTokenAccessor;
+
+/**
+ * Caches the OAuth access token of an {@link EmailSessionKey}, so that connecting doesn't require a round trip to the
+ * identity provider each time (depending on the credential source, the accessor may refresh the token whenever it's
+ * asked for one). A token is reused until shortly before it expires; within the last {@link #REFRESH_MARGIN} of its
+ * lifetime it's still used but a new token is fetched in the background. Tokens without known expiry are reused for
+ * {@link #MAX_AGE_UNKNOWN_EXPIRY}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class AccessTokenCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(AccessTokenCache.class);
+
+    /** Tokens expiring within that duration are refreshed in the background. */
+    static final Duration REFRESH_MARGIN = Duration.ofMinutes(5);
+
+    /** Tokens are considered expired this much before their actual expiry (clock skew, connect duration). */
+    private static final Duration EXPIRY_SAFETY_MARGIN = Duration.ofSeconds(30);
+
+    /** Time a token without known expiry is reused. */
+    static final Duration MAX_AGE_UNKNOWN_EXPIRY = Duration.ofMinutes(5);
+
+    private final AccessTokenAccessor m_accessor;
+
+    /** Cached token and its expiry, guarded by this. */
+    private String m_token;
+
+    private Instant m_expiresAfter;
+
+    /** The background refresh in progress, if any, guarded by this. */
+    private CompletableFuture<Void> m_refresh;
+
+    AccessTokenCache(final AccessTokenAccessor accessor) {
+        m_accessor = accessor;
+    }
+
+    /**
+     * @return a valid token, fetched from the accessor only if there is no cached one or it's (about to) expire
+     * @throws IOException if fetching the token fails
+     */
+    String getToken() throws IOException {
+        synchronized (this) {
+            final var now = Instant.now();
+            if (m_token != null && now.isBefore(m_expiresAfter.minus(EXPIRY_SAFETY_MARGIN))) {
+                if (m_refresh == null && !now.isBefore(m_expiresAfter.minus(REFRESH_MARGIN))) {
+                    refreshInBackground();
+                }
+                return m_token;
+            }
+        }
+        return fetch(false);
+    }
+
+    /**
+     * Fetches a new token, e.g. after authentication with the cached token failed.
+     *
+     * @return the new token
+     * @throws IOException if fetching the token fails
+     */
+    String refresh() throws IOException {
+        return fetch(true);
+    }
+
+    private String fetch(final boolean forceRefresh) throws IOException {
+        final String token = m_accessor.getAccessToken(forceRefresh);
+        final Instant expiresAfter =
+            m_accessor.getExpiresAfter().orElseGet(() -> Instant.now().plus(MAX_AGE_UNKNOWN_EXPIRY));
+        synchronized (this) {
+            m_token = token;
+            m_expiresAfter = expiresAfter;
+        }
+        return token;
+    }
+
+    /** Called with the lock held. */
+    private void refreshInBackground() {
+        m_refresh = CompletableFuture.runAsync(() -> {
+            try {
+                fetch(true);
+            } catch (IOException e) {
+                LOGGER.debug("Background refresh of access token failed: " + e.getMessage(), e);
+            } finally {
+                synchronized (this) {
+                    m_refresh = null;
+                }
+            }
+        }, r -> {
+            final var thread = new Thread(r, "KNIME-Email-Token-Refresh");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+}
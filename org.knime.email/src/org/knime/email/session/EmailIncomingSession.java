@@ -50,12 +50,19 @@
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Consumer;
 
+import org.eclipse.angus.mail.imap.IMAPFolder;
+import org.eclipse.angus.mail.imap.IMAPStore;
+import org.eclipse.angus.mail.imap.ResyncData;
+import org.eclipse.angus.mail.imap.protocol.IMAPResponse;
+import org.eclipse.angus.mail.imap.protocol.MailboxInfo;
+import org.eclipse.angus.mail.imap.protocol.Status;
+import org.eclipse.angus.mail.imap.protocol.UIDSet;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.util.CheckUtils;
 
 import jakarta.mail.Folder;
+import jakarta.mail.Message;
 import jakarta.mail.MessagingException;
 import jakarta.mail.Store;
 
@@ -67,6 +74,19 @@ public final class EmailIncomingSession implements AutoCloseable {
 
     static final NodeLogger LOGGER = NodeLogger.getLogger(EmailIncomingSession.class);
 
+    private static final List<String> STATUS_ITEMS = List.of("MESSAGES", "UNSEEN", "RECENT", "UIDNEXT", "UIDVALIDITY");
+
+    private static final String STATUS_ITEM_SIZE = "SIZE";
+
+    /** Capability of servers supporting modification sequences (RFC 7162). */
+    public static final String CAPABILITY_CONDSTORE = "CONDSTORE";
+
+    /** Capability of servers reporting expunged messages when resynchronizing a folder (RFC 7162). */
+    public static final String CAPABILITY_QRESYNC = "QRESYNC";
+
+    /** Capability of servers reporting the folder size in the STATUS response (RFC 8438). */
+    public static final String CAPABILITY_STATUS_SIZE = "STATUS=SIZE";
+
     private final Store m_emailStore;
 
     EmailIncomingSession(final Store emailStore) {
@@ -74,7 +94,8 @@ public final class EmailIncomingSession implements AutoCloseable {
     }
 
     /**
-     * Returns all accessible email folders.
+     * Returns all accessible email folders. The folders are listed with a single command (IMAP <tt>LIST "" "*"</tt>),
+     * their type is taken from the attributes returned along with the names (no further round trip per folder).
      *
      * @return the name of all available email folders
      * @throws MessagingException
@@ -82,20 +103,91 @@ public final class EmailIncomingSession implements AutoCloseable {
     public String[] listFolders() throws MessagingException {
         final var defaultFolder = m_emailStore.getDefaultFolder();
         List<String> folders = new ArrayList<>();
-        collectSubFolders(defaultFolder, folders::add);
+        for (var folder : defaultFolder.list("*")) {
+            if ((folder.getType() & Folder.HOLDS_MESSAGES) != 0) {
+                folders.add(folder.getFullName());
+            }
+        }
         return folders.toArray(String[]::new);
     }
 
-    private static void collectSubFolders(final Folder parent, final Consumer<String> collector)
-            throws MessagingException {
-        for (var subfolder : parent.list()) {
-            if ((subfolder.getType() & Folder.HOLDS_MESSAGES) != 0) {
-                collector.accept(subfolder.getFullName());
+    /**
+     * Returns the status of the given folder without selecting it (IMAP <tt>STATUS</tt> command). The highest
+     * modification sequence and the size are only requested if the server supports them (CONDSTORE, STATUS=SIZE).
+     *
+     * @param folderFullName the name of the folder
+     * @return the status of the folder
+     * @throws MessagingException if the folder doesn't exist or the store doesn't support the status command
+     */
+    public FolderStatus getFolderStatus(final String folderFullName) throws MessagingException {
+        if (!(m_emailStore instanceof IMAPStore imapStore)) {
+            throw new MessagingException("Folder status is only supported for IMAP servers");
+        }
+        final List<String> items = new ArrayList<>(STATUS_ITEMS);
+        if (imapStore.hasCapability(CAPABILITY_CONDSTORE)) {
+            items.add("HIGHESTMODSEQ");
+        }
+        final boolean withSize = imapStore.hasCapability(CAPABILITY_STATUS_SIZE);
+        if (withSize) {
+            items.add(STATUS_ITEM_SIZE);
+        }
+        final var folder = (IMAPFolder)m_emailStore.getFolder(folderFullName);
+        final var status = (Status)folder.doCommand(p -> p.status(folderFullName, items.toArray(String[]::new)));
+        return new FolderStatus(folderFullName, status.total, status.unseen, status.recent, status.uidnext,
+            status.uidvalidity, status.highestmodseq, withSize ? status.getItem(STATUS_ITEM_SIZE) : -1);
+    }
+
+    /**
+     * @param capability the capability, e.g. "CONDSTORE"
+     * @return whether the (IMAP) server announced the given capability
+     * @throws MessagingException if the capabilities cannot be retrieved
+     */
+    public boolean hasCapability(final String capability) throws MessagingException {
+        return m_emailStore instanceof IMAPStore imapStore && imapStore.hasCapability(capability);
+    }
+
+    /**
+     * Returns the UIDs of the messages expunged from the given folder since the given modification sequence, using
+     * QRESYNC (RFC 7162): the folder is examined with the given UIDVALIDITY and modification sequence, and the server
+     * reports the expunged messages in a <tt>VANISHED (EARLIER)</tt> response. The folder is closed again afterwards.
+     *
+     * @param folderFullName the name of the folder
+     * @param uidValidity the UID validity of the folder when the modification sequence was recorded
+     * @param modSeq the modification sequence, e.g. a {@link FolderStatus#highestModSeq()} of a previous run
+     * @return the expunged messages along with the folder's current UIDVALIDITY and HIGHESTMODSEQ
+     * @throws MessagingException if the server doesn't support QRESYNC or the folder cannot be examined
+     */
+    public ExpungedMessages getExpungedMessages(final String folderFullName, final long uidValidity,
+        final long modSeq) throws MessagingException {
+        CheckUtils.check(hasCapability(CAPABILITY_QRESYNC), MessagingException::new,
+            () -> "The email server doesn't support QRESYNC");
+        final var folder = (IMAPFolder)getFolder(folderFullName);
+        return (ExpungedMessages)folder.doCommand(p -> {
+            if (!p.isEnabled(CAPABILITY_QRESYNC)) {
+                p.enable(CAPABILITY_QRESYNC); // must precede the EXAMINE command
             }
-            if ((subfolder.getType() & Folder.HOLDS_FOLDERS) != 0) {
-                collectSubFolders(subfolder, collector);
+            final MailboxInfo info = p.examine(folderFullName, new ResyncData(uidValidity, modSeq));
+            final long[] uids = getVanishedUIDs(info.responses == null ? List.of() : info.responses);
+            p.close(); // read-only, doesn't expunge
+            return new ExpungedMessages(folderFullName, info.uidvalidity, info.highestmodseq, uids);
+        });
+    }
+
+    /**
+     * @param responses the responses to an <tt>EXAMINE</tt> command with QRESYNC parameters
+     * @return the UIDs reported in the <tt>VANISHED (EARLIER)</tt> responses
+     */
+    static long[] getVanishedUIDs(final List<IMAPResponse> responses) {
+        final List<Long> uids = new ArrayList<>();
+        for (final IMAPResponse response : responses) {
+            if (response.keyEquals("VANISHED")) {
+                response.readAtomStringList(); // (EARLIER)
+                for (final long uid : UIDSet.toArray(UIDSet.parseUIDSets(response.readAtom()))) {
+                    uids.add(uid);
+                }
             }
         }
+        return uids.stream().mapToLong(Long::longValue).toArray();
     }
 
     private Folder getFolder(final String folderFullName) throws MessagingException {
@@ -131,6 +223,24 @@ private Folder openFolder(final String folderFullName, final int flag) throws Me
         return f;
     }
 
+    /**
+     * Appends the messages to the given folder (one connection, the messages are transferred back-to-back).
+     *
+     * @param folderFullName the name of the folder, e.g. 'Sent'
+     * @param messages the messages to append
+     * @throws MessagingException if the folder doesn't exist or appending fails
+     */
+    public void appendMessages(final String folderFullName, final Message... messages) throws MessagingException {
+        getFolder(folderFullName).appendMessages(messages);
+    }
+
+    /**
+     * @return whether the underlying store is (still) connected
+     */
+    public boolean isConnected() {
+        return m_emailStore.isConnected();
+    }
+
     @Override
     public void close() throws MessagingException {
         m_emailStore.close();
@@ -50,6 +50,7 @@
 
 import java.util.Optional;
 
+import org.eclipse.angus.mail.smtp.SMTPTransport;
 import org.knime.core.node.NodeLogger;
 
 import jakarta.mail.MessagingException;
@@ -65,6 +66,15 @@ public final class EmailOutgoingSession implements AutoCloseable {
 
     static final NodeLogger LOGGER = NodeLogger.getLogger(EmailOutgoingSession.class);
 
+    /** SMTP extension allowing 8bit content (RFC 6152). */
+    public static final String EXTENSION_8BITMIME = "8BITMIME";
+
+    /** SMTP extension allowing UTF-8 in addresses and headers (RFC 6531). */
+    public static final String EXTENSION_SMTPUTF8 = "SMTPUTF8";
+
+    /** SMTP extension allowing to transfer the message in BDAT chunks instead of DATA (RFC 3030). */
+    public static final String EXTENSION_CHUNKING = "CHUNKING";
+
     private final Session m_session;
 
     private final Transport m_emailTransport;
@@ -85,12 +95,28 @@ public Transport getEmailTransport() {
     }
 
     /**
-     * @return the Session object.
+     * @return the Session object to create messages with; its properties match the server this session is connected
+     *         to (e.g. "mail.mime.allowutf8" is only set if the server supports SMTPUTF8) and must not be modified
      */
     public Session getSession() {
         return m_session;
     }
 
+    /**
+     * @param extension the name of an SMTP service extension, e.g. "8BITMIME" or "SMTPUTF8"
+     * @return whether the server advertised the extension (in its EHLO response)
+     */
+    public boolean supportsExtension(final String extension) {
+        return m_emailTransport instanceof SMTPTransport smtpTransport && smtpTransport.supportsExtension(extension);
+    }
+
+    /**
+     * @return whether the transport is (still) connected
+     */
+    public boolean isConnected() {
+        return m_emailTransport.isConnected();
+    }
+
     /**
      *
      * @return the optional email address to use in the from field
@@ -48,10 +48,11 @@
  */
 package org.knime.email.session;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.workflow.WorkflowResourceCache;
@@ -60,16 +61,26 @@
 /**
  * Allows retrieving {@link EmailIncomingSession}s via unique id.
  *
+ * <p>
+ * The cache is accessed concurrently, e.g. by the configure methods of nodes in parallel branches, port views and
+ * dialogs, hence it's backed by a concurrent map rather than synchronizing all access. Along with each session key it
+ * keeps some usage statistics (number of accesses, time of last access), the open (parked) connections are held by the
+ * key itself (see {@link EmailSessionKey#park(EmailIncomingSession)}).
+ *
  * @author Tobias Koetter, KNIME GmbH, Konstanz, Germany
  */
 public final class EmailSessionCache implements WorkflowResource {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(EmailSessionCache.class);
 
-    private final Map<UUID, EmailSessionKey> m_sessionsMap;
+    private final Map<UUID, CacheEntry> m_sessionsMap;
+
+    private final AtomicLong m_hitCount = new AtomicLong();
+
+    private final AtomicLong m_missCount = new AtomicLong();
 
     private EmailSessionCache() {
-        m_sessionsMap = new HashMap<>();
+        m_sessionsMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -80,10 +91,10 @@ private EmailSessionCache() {
      * @return The cacheId that could be used to retrieve or delete the email
      *         from the cache.
      */
-    public static synchronized UUID store(final EmailSessionKey session) {
+    public static UUID store(final EmailSessionKey session) {
         final var cache = WorkflowResourceCache.computeIfAbsent(EmailSessionCache.class, EmailSessionCache::new);
         final var uuid = UUID.randomUUID();
-        cache.m_sessionsMap.put(uuid, session);
+        cache.m_sessionsMap.put(uuid, new CacheEntry(session));
         return uuid;
     }
 
@@ -94,8 +105,18 @@ public static synchronized UUID store(final EmailSessionKey session) {
      *         empty one, if no email is currently cached under the given
      *         {@link UUID}.
      */
-    public static synchronized Optional<EmailSessionKey> get(final UUID cacheId) {
-        return WorkflowResourceCache.get(EmailSessionCache.class).map(cache -> cache.m_sessionsMap.get(cacheId));
+    public static Optional<EmailSessionKey> get(final UUID cacheId) {
+        return WorkflowResourceCache.get(EmailSessionCache.class).map(cache -> cache.getKey(cacheId));
+    }
+
+    private EmailSessionKey getKey(final UUID cacheId) {
+        final CacheEntry entry = m_sessionsMap.get(cacheId);
+        if (entry == null) {
+            m_missCount.incrementAndGet();
+            return null;
+        }
+        m_hitCount.incrementAndGet();
+        return entry.access();
     }
 
     /**
@@ -103,16 +124,63 @@ public static synchronized Optional<EmailSessionKey> get(final UUID cacheId) {
      *
      * @param cacheId The cache id.
      */
-    public static synchronized void delete(final UUID cacheId) {
-        WorkflowResourceCache.get(EmailSessionCache.class).ifPresent(cache -> cache.m_sessionsMap.remove(cacheId));
+    public static void delete(final UUID cacheId) {
+        WorkflowResourceCache.get(EmailSessionCache.class).map(cache -> cache.m_sessionsMap.remove(cacheId))
+            .ifPresent(entry -> {
+                LOGGER.debugWithFormat("Removing email session from cache (%d access(es), last used %d ms ago)",
+                    entry.m_accessCount.get(), System.currentTimeMillis() - entry.m_lastUsedMillis.get());
+                entry.m_key.closeParkedConnections();
+            });
+    }
+
+    /**
+     * @return the statistics of the cache associated with the workflow of the current node context, empty if there
+     *         is none (no session stored yet)
+     */
+    public static Optional<Statistics> getStatistics() {
+        return WorkflowResourceCache.get(EmailSessionCache.class).map(cache -> new Statistics(
+            cache.m_sessionsMap.size(), cache.m_hitCount.get(), cache.m_missCount.get()));
+    }
+
+    /**
+     * Statistics of the cache.
+     *
+     * @param size the number of sessions currently stored
+     * @param hitCount the number of successful lookups
+     * @param missCount the number of lookups of ids not (or no longer) stored, e.g. after a connector was reset
+     */
+    public record Statistics(int size, long hitCount, long missCount) {
     }
 
     @Override
     public void dispose() {
+        LOGGER.debugWithFormat("Disposing email session cache (%d element(s), %d hit(s), %d miss(es))",
+            m_sessionsMap.size(), m_hitCount.get(), m_missCount.get());
         if (!m_sessionsMap.isEmpty()) {
             LOGGER.warnWithFormat("Disposing resource with non-empty cache (%d element(s)).", m_sessionsMap.size());
+            m_sessionsMap.values().forEach(entry -> entry.m_key.closeParkedConnections());
             m_sessionsMap.clear();
         }
     }
 
+    /** A stored session key along with its usage statistics. */
+    private static final class CacheEntry {
+
+        private final EmailSessionKey m_key;
+
+        private final AtomicLong m_accessCount = new AtomicLong();
+
+        private final AtomicLong m_lastUsedMillis = new AtomicLong(System.currentTimeMillis());
+
+        CacheEntry(final EmailSessionKey key) {
+            m_key = key;
+        }
+
+        EmailSessionKey access() {
+            m_accessCount.incrementAndGet();
+            m_lastUsedMillis.set(System.currentTimeMillis());
+            return m_key;
+        }
+    }
+
 }
@@ -50,6 +50,7 @@
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -57,15 +58,21 @@
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.angus.mail.smtp.SMTPTransport;
 import org.knime.core.node.util.CheckUtils;
 import org.knime.credentials.base.oauth.api.AccessTokenAccessor;
 
 import com.google.common.collect.ImmutableMap;
 
+import jakarta.mail.AuthenticationFailedException;
 import jakarta.mail.MessagingException;
 import jakarta.mail.Session;
 import jakarta.mail.Store;
@@ -74,6 +81,8 @@
 /**
  * {@link EmailIncomingSession} provider that establishes a connection to the {@link EmailIncomingSession} when necessary.
  * Retrieved {@link EmailIncomingSession} should be closed once the processing is done!
+ * The key is immutable; the underlying jakarta.mail {@link Session}s are created once (per direction) and shared by all
+ * connections. Changed settings or credentials result in a new key.
  *
  * @author Bernd Wiswedel
  */
@@ -89,6 +98,23 @@ public final class EmailSessionKey {
      */
     public static final int DEF_TIMEOUT_READ_S = 10;
 
+    /** Size in bytes of the BDAT chunks used if the SMTP server supports CHUNKING. */
+    static final int DEF_BDAT_CHUNK_SIZE = 256 * 1024;
+
+    /** Time in milliseconds after which a parked connection is no longer used. */
+    static final long PARKED_CONNECTION_MAX_IDLE_MS = 60_000;
+
+    /** Closes parked connections that aren't taken in time, see {@link #park(EmailIncomingSession)}. */
+    private static final ScheduledExecutorService PARKED_CONNECTION_CLOSER =
+        Executors.newSingleThreadScheduledExecutor(r -> {
+            final var thread = new Thread(r, "KNIME-Email-Parked-Connection-Closer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    /** Session property allowing unencoded UTF-8 in message headers (only used if the server supports SMTPUTF8). */
+    static final String PROPERTY_ALLOW_UTF8 = "mail.mime.allowutf8";
+
     /** SMTP Connection Security as specified in the builder. */
     public enum SmtpConnectionSecurity {
         NONE,
@@ -113,13 +139,27 @@ enum AuthType {
 
     private final int m_connectTimeoutS;
     private final int m_readTimeoutS;
-    private Properties m_properties;
+    private final Properties m_properties;
 
 
     private final AuthType m_authType;
     private final String m_user;
     private final String m_password;
-    private AccessTokenAccessor m_tokenAccessor;
+    private final AccessTokenCache m_tokenCache;
+
+    /** Sessions created lazily (see {@link #getIncomingSession()}), guarded by this. */
+    private Session m_incomingSession;
+    private Session m_outgoingSession;
+    /** As {@link #m_outgoingSession} but without UTF-8 in headers, for servers not supporting SMTPUTF8. */
+    private Session m_outgoingAsciiSession;
+
+    /** Open connections, see {@link #park(EmailIncomingSession)}, guarded by this. */
+    private AutoCloseable m_parkedIncoming;
+    private long m_parkedIncomingMillis;
+    private AutoCloseable m_parkedOutgoing;
+    private long m_parkedOutgoingMillis;
+
+    private final FolderListCache m_folderListCache = new FolderListCache(this::listFoldersUncached);
 
     private EmailSessionKey(final EmailSessionKeyBuilder builder) {
         m_imapHost = builder.m_imapHost;
@@ -138,11 +178,15 @@ private EmailSessionKey(final EmailSessionKeyBuilder builder) {
         m_authType = builder.m_authType;
         m_user = builder.m_user;
         m_password = builder.m_password;
-        m_tokenAccessor = builder.m_accessor;
+        m_tokenCache = builder.m_accessor == null ? null : new AccessTokenCache(builder.m_accessor);
 
         m_connectTimeoutS = builder.m_connectTimeoutS;
         m_readTimeoutS = builder.m_readTimeoutS;
-        m_properties = builder.m_properties;
+        // copy, the key (and the sessions derived from it) must not change when the argument properties are modified
+        m_properties = new Properties();
+        if (builder.m_properties != null) {
+            m_properties.putAll(builder.m_properties);
+        }
     }
 
     public static Builder builder() {
@@ -164,43 +208,36 @@ public boolean incomingAvailable() {
      * @throws MessagingException if the connection fails
      * @see #incomingAvailable()
      */
-    @SuppressWarnings({"resource", "java:S1192"}) // java:S1192 - string duplication of "mail."
+    @SuppressWarnings("resource")
     public EmailIncomingSession connectIncoming() throws MessagingException {
         if (!incomingAvailable()) {
             throw new MessagingException("No incoming server settings available");
         }
-        final var protocol = m_imapUseSecurePortocol ? "imaps" : "imap";
-        final var properties = new Properties();
-        properties.put("mail.store.protocol", protocol);
-        properties.put("mail." + protocol + ".host", m_imapHost);
-        properties.put("mail." + protocol + ".port", m_imapPort);
-        properties.put("mail." + protocol + ".connectiontimeout", String.valueOf(1000 * m_connectTimeoutS));
-        properties.put("mail." + protocol + ".timeout", String.valueOf(1000 * m_readTimeoutS));
-
-        //use the user settings last to allow for more flexibility by allowing users to overwrite our standard settings
-        properties.putAll(m_properties);
+        final EmailIncomingSession parkedSession = takeParked(true, EmailIncomingSession.class);
+        if (parkedSession != null) {
+            return parkedSession;
+        }
         EmailIncomingSession.LOGGER.debugWithFormat(
-            "Connecting email client to %s:%d via %s using following properties %s", m_imapHost, m_imapPort, protocol,
-            m_properties);
+            "Connecting email client to %s:%d via %s using following properties %s", m_imapHost, m_imapPort,
+            m_imapUseSecurePortocol ? "imaps" : "imap", m_properties);
 
-        final Session emailSession;
+        final Session emailSession = getIncomingSession();
         Store emailStore = null;
         try {
+            emailStore = emailSession.getStore();
             switch (m_authType) {
                 case NONE:
-                    emailSession = Session.getInstance(properties);
-                    emailStore = emailSession.getStore();
                     emailStore.connect();
                     break;
                 case OAUTH:
-                    properties.put("mail." + protocol + ".auth.mechanisms", "XOAUTH2");
-                    emailSession = Session.getInstance(properties);
-                    emailStore = emailSession.getStore();
-                    emailStore.connect(m_user, m_tokenAccessor.getAccessToken());
+                    try {
+                        emailStore.connect(m_user, m_tokenCache.getToken());
+                    } catch (AuthenticationFailedException e) { // NOSONAR retried once
+                        // cached token may have been revoked (or expired early), retry once with a new token
+                        emailStore.connect(m_user, m_tokenCache.refresh());
+                    }
                     break;
                 case USERNAME_PASSWORD:
-                    emailSession = Session.getInstance(properties);
-                    emailStore = emailSession.getStore();
                     emailStore.connect(m_user, m_password);
                     break;
                 default:
@@ -223,6 +260,35 @@ public EmailIncomingSession connectIncoming() throws MessagingException {
         }
     }
 
+    /**
+     * The jakarta.mail session for the incoming connections, created once and shared by all connections (the session
+     * properties are derived from this immutable key only).
+     */
+    private synchronized Session getIncomingSession() {
+        if (m_incomingSession == null) {
+            m_incomingSession = Session.getInstance(createIncomingProperties());
+        }
+        return m_incomingSession;
+    }
+
+    @SuppressWarnings("java:S1192") // java:S1192 - string duplication of "mail."
+    private Properties createIncomingProperties() {
+        final var protocol = m_imapUseSecurePortocol ? "imaps" : "imap";
+        final var properties = new Properties();
+        properties.put("mail.store.protocol", protocol);
+        properties.put("mail." + protocol + ".host", m_imapHost);
+        properties.put("mail." + protocol + ".port", m_imapPort);
+        properties.put("mail." + protocol + ".connectiontimeout", String.valueOf(1000 * m_connectTimeoutS));
+        properties.put("mail." + protocol + ".timeout", String.valueOf(1000 * m_readTimeoutS));
+
+        //use the user settings last to allow for more flexibility by allowing users to overwrite our standard settings
+        properties.putAll(m_properties);
+        if (m_authType == AuthType.OAUTH) {
+            properties.put("mail." + protocol + ".auth.mechanisms", "XOAUTH2");
+        }
+        return properties;
+    }
+
     /**
      * Specifies if an outgoing connection is available.
      * @return <code>true</code> if an outgoing connection is available
@@ -238,12 +304,77 @@ public boolean outgoingAvailable() {
      * @throws MessagingException if the connection fails
      * @see #outgoingAvailable()
      */
-    @SuppressWarnings({"resource", "java:S1192"}) // java:S1192 - string duplication of "mail."
+    @SuppressWarnings("resource")
     public EmailOutgoingSession connectOutgoing() throws MessagingException {
         if (!outgoingAvailable()) {
             throw new MessagingException("No outgoing server settings available");
         }
         CheckUtils.checkState(StringUtils.isNotBlank(m_smtpHost), "No outgoing server (smtp) specified");
+        final EmailOutgoingSession parkedSession = takeParked(false, EmailOutgoingSession.class);
+        if (parkedSession != null) {
+            return parkedSession;
+        }
+
+        final Session session = getOutgoingSession();
+        Transport transport = null;
+        try {
+            transport = session.getTransport();
+            switch (m_authType) {
+                case NONE:
+                    transport.connect();
+                    break;
+                case OAUTH:
+                    try {
+                        transport.connect(m_user, m_tokenCache.getToken());
+                    } catch (AuthenticationFailedException e) { // NOSONAR retried once
+                        // cached token may have been revoked (or expired early), retry once with a new token
+                        transport.connect(m_user, m_tokenCache.refresh());
+                    }
+                    break;
+                case USERNAME_PASSWORD:
+                    transport.connect(m_user, m_password);
+                    break;
+                default:
+                    throw new IllegalStateException(m_authType + " not implemented");
+            }
+            if (!m_properties.containsKey(PROPERTY_ALLOW_UTF8) && !(transport instanceof SMTPTransport smtpTransport
+                && smtpTransport.supportsExtension(EmailOutgoingSession.EXTENSION_SMTPUTF8))) {
+                // messages sent via this connection must encode non-ASCII headers, decided per connection as the
+                // (shared) sessions are never modified
+                return new EmailOutgoingSession(getOutgoingAsciiSession(), transport, m_smtpEmailAddress);
+            }
+            return new EmailOutgoingSession(session, transport, m_smtpEmailAddress);
+        } catch (MessagingException | IOException me) {
+            if (transport != null) {
+                transport.close();
+            }
+            if (me instanceof MessagingException) {
+                throw (MessagingException)me;
+            }
+            throw new MessagingException("Failed to connect to Email server " + m_smtpHost + ":" + m_smtpPort, me);
+        }
+    }
+
+    /** As {@link #getIncomingSession()} but for outgoing connections. */
+    private synchronized Session getOutgoingSession() {
+        if (m_outgoingSession == null) {
+            m_outgoingSession = Session.getInstance(createOutgoingProperties());
+        }
+        return m_outgoingSession;
+    }
+
+    /** As {@link #getOutgoingSession()} but for messages to servers that don't support SMTPUTF8. */
+    private synchronized Session getOutgoingAsciiSession() {
+        if (m_outgoingAsciiSession == null) {
+            final var properties = createOutgoingProperties();
+            properties.setProperty(PROPERTY_ALLOW_UTF8, "false");
+            m_outgoingAsciiSession = Session.getInstance(properties);
+        }
+        return m_outgoingAsciiSession;
+    }
+
+    @SuppressWarnings("java:S1192") // java:S1192 - string duplication of "mail."
+    private Properties createOutgoingProperties() {
         final var properties = new Properties();
         var protocol = "smtp";
         switch (m_smtpConnectionSecurity) {
@@ -283,42 +414,147 @@ public EmailOutgoingSession connectOutgoing() throws MessagingException {
         properties.setProperty("mail." + protocol + ".auth", Boolean.toString(AuthType.NONE != m_authType));
         properties.setProperty("mail." + protocol + ".connectiontimeout", String.valueOf(1000 * m_connectTimeoutS));
         properties.setProperty("mail." + protocol + ".timeout", String.valueOf(1000 * m_readTimeoutS));
+        // send text parts 8bit encoded (rather than quoted-printable or base64) if the server supports 8BITMIME
+        properties.setProperty("mail." + protocol + ".allow8bitmime", "true");
+        // unencoded UTF-8 headers/addresses (SMTPUTF8, RFC 6531), see getOutgoingAsciiSession() otherwise
+        properties.setProperty(PROPERTY_ALLOW_UTF8, "true");
+        // transfer the message in BDAT chunks (no dot-stuffing) if the server supports CHUNKING (RFC 3030)
+        properties.setProperty("mail." + protocol + ".chunksize", String.valueOf(DEF_BDAT_CHUNK_SIZE));
 
         //use the user settings last to allow for more flexibility by allowing users to overwrite our standard settings
         properties.putAll(m_properties);
+        if (m_authType == AuthType.OAUTH) {
+            properties.put("mail." + protocol + ".auth.mechanisms", "XOAUTH2");
+        }
+        return properties;
+    }
 
-        final Session session;
-        Transport transport = null;
-        try {
-            switch (m_authType) {
-                case NONE:
-                    session = Session.getInstance(properties);
-                    transport = session.getTransport();
-                    transport.connect();
-                    break;
-                case OAUTH:
-                    properties.put("mail." + protocol + ".auth.mechanisms", "XOAUTH2");
-                    session = Session.getInstance(properties);
-                    transport = session.getTransport();
-                    transport.connect(m_user, m_tokenAccessor.getAccessToken());
-                    break;
-                case USERNAME_PASSWORD:
-                    session = Session.getInstance(properties);
-                    transport = session.getTransport();
-                    transport.connect(m_user, m_password);
-                    break;
-                default:
-                    throw new IllegalStateException(m_authType + " not implemented");
+    /**
+     * Parks an open connection, e.g. one that was opened to validate the settings, so that it is returned by the next
+     * call to {@link #connectIncoming()} rather than opening a new connection. Parked connections that aren't taken
+     * within {@value #PARKED_CONNECTION_MAX_IDLE_MS} ms are closed.
+     *
+     * @param session the open connection, not to be used (or closed) by the caller anymore
+     */
+    public void park(final EmailIncomingSession session) {
+        park(true, session);
+    }
+
+    /**
+     * As {@link #park(EmailIncomingSession)}, for the next call to {@link #connectOutgoing()}.
+     *
+     * @param session the open connection, not to be used (or closed) by the caller anymore
+     */
+    public void park(final EmailOutgoingSession session) {
+        park(false, session);
+    }
+
+    private void park(final boolean incoming, final AutoCloseable session) {
+        final AutoCloseable previous;
+        synchronized (this) {
+            previous = incoming ? m_parkedIncoming : m_parkedOutgoing;
+            if (incoming) {
+                m_parkedIncoming = session;
+                m_parkedIncomingMillis = System.currentTimeMillis();
+            } else {
+                m_parkedOutgoing = session;
+                m_parkedOutgoingMillis = System.currentTimeMillis();
             }
-            return new EmailOutgoingSession(session, transport, m_smtpEmailAddress);
-        } catch (MessagingException | IOException me) {
-            if (transport != null) {
-                transport.close();
+        }
+        closeQuietly(previous);
+        PARKED_CONNECTION_CLOSER.schedule(() -> closeExpired(incoming, session), PARKED_CONNECTION_MAX_IDLE_MS,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /** Closes the given connection if it is (still, or again) parked and has expired. */
+    private void closeExpired(final boolean incoming, final AutoCloseable session) {
+        synchronized (this) {
+            final AutoCloseable parked = incoming ? m_parkedIncoming : m_parkedOutgoing;
+            final long parkedMillis = incoming ? m_parkedIncomingMillis : m_parkedOutgoingMillis;
+            if (parked != session || System.currentTimeMillis() - parkedMillis < PARKED_CONNECTION_MAX_IDLE_MS) {
+                return; // taken or replaced, or parked again (and scheduled again)
             }
-            if (me instanceof MessagingException) {
-                throw (MessagingException)me;
+            if (incoming) {
+                m_parkedIncoming = null;
+            } else {
+                m_parkedOutgoing = null;
+            }
+        }
+        closeQuietly(session);
+    }
+
+    /** Takes the parked connection, if any and still usable; closes it if not. */
+    private <T extends AutoCloseable> T takeParked(final boolean incoming, final Class<T> sessionClass) {
+        final AutoCloseable session;
+        final long parkedMillis;
+        synchronized (this) {
+            session = incoming ? m_parkedIncoming : m_parkedOutgoing;
+            parkedMillis = incoming ? m_parkedIncomingMillis : m_parkedOutgoingMillis;
+            if (incoming) {
+                m_parkedIncoming = null;
+            } else {
+                m_parkedOutgoing = null;
+            }
+        }
+        if (session == null) {
+            return null;
+        }
+        final boolean isConnected = session instanceof EmailIncomingSession incomingSession
+            ? incomingSession.isConnected() : ((EmailOutgoingSession)session).isConnected();
+        if (System.currentTimeMillis() - parkedMillis <= PARKED_CONNECTION_MAX_IDLE_MS && isConnected) {
+            return sessionClass.cast(session);
+        }
+        closeQuietly(session);
+        return null;
+    }
+
+    /**
+     * Lists the folders of the incoming server (sorted by name) asynchronously. A list computed within the last
+     * {@value FolderListCache#TTL_MS} ms is reused, as is a computation that is still in progress. The connection used
+     * for listing is {@linkplain #park(EmailIncomingSession) parked} afterwards.
+     *
+     * @return the future folder list, completed exceptionally if listing fails
+     */
+    public CompletableFuture<List<String>> listFolders() {
+        return m_folderListCache.get();
+    }
+
+    @SuppressWarnings("resource") // parked or closed
+    private List<String> listFoldersUncached() throws MessagingException {
+        final var session = connectIncoming();
+        final String[] folders;
+        try {
+            folders = session.listFolders();
+        } catch (MessagingException | RuntimeException e) {
+            closeQuietly(session);
+            throw e;
+        }
+        park(session);
+        Arrays.sort(folders);
+        return List.of(folders);
+    }
+
+    /** Closes the parked connections, if any. Called when the key is no longer used. */
+    public void closeParkedConnections() {
+        final AutoCloseable incoming;
+        final AutoCloseable outgoing;
+        synchronized (this) {
+            incoming = m_parkedIncoming;
+            outgoing = m_parkedOutgoing;
+            m_parkedIncoming = null;
+            m_parkedOutgoing = null;
+        }
+        closeQuietly(incoming);
+        closeQuietly(outgoing);
+    }
+
+    private static void closeQuietly(final AutoCloseable session) {
+        if (session != null) {
+            try {
+                session.close();
+            } catch (Exception e) { // NOSONAR closing is best effort
+                EmailIncomingSession.LOGGER.debug("Failed to close parked email connection", e);
             }
-            throw new MessagingException("Failed to connect to Email server " + m_smtpHost + ":" + m_smtpPort, me);
         }
     }
 
@@ -356,7 +592,7 @@ public Collection<ViewContentSection> toViewContent() {
         result.add(new ViewContentSection("Authentication", Optional.ofNullable(authPropMap)));
 
         Map<String, String> propertiesPropMap = null;
-        if (m_properties != null && !m_properties.isEmpty()) {
+        if (!m_properties.isEmpty()) {
             propertiesPropMap = m_properties.entrySet().stream() //
                 .collect(Collectors.toMap(Objects::toString, Objects::toString, (s1, s2) -> s1, LinkedHashMap::new));
         }
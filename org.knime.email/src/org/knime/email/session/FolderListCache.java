@@ -0,0 +1,106 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ * History
+ *   Oct 19, 2026 (KNIME): created
+ */
+package org.knime.email.session;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import jakarta.mail.MessagingException;
+
+/**
+ * Caches the folder list of an {@link EmailSessionKey} so that dialogs don't list all folders of the mailbox every time
+ * they are opened. The list is computed asynchronously (on a daemon thread) and reused for {@link #TTL_MS} ms;
+ * concurrent requests share the computation in progress. Failed computations aren't cached.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class FolderListCache {
+
+    /** Time a computed folder list is reused. */
+    static final long TTL_MS = 5 * 60 * 1000L;
+
+    /** Computes the folder list, see {@link EmailSessionKey#listFolders()}. */
+    @FunctionalInterface
+    interface FolderLister {
+        List<String> listFolders() throws MessagingException;
+    }
+
+    private final FolderLister m_lister;
+
+    /** The current (possibly still running) computation, guarded by this. */
+    private CompletableFuture<List<String>> m_folders;
+
+    private long m_createdMillis;
+
+    FolderListCache(final FolderLister lister) {
+        m_lister = lister;
+    }
+
+    synchronized CompletableFuture<List<String>> get() {
+        final boolean isStale = m_folders == null
+            || (m_folders.isDone() && System.currentTimeMillis() - m_createdMillis > TTL_MS)
+            || m_folders.isCompletedExceptionally();
+        if (isStale) {
+            m_createdMillis = System.currentTimeMillis();
+            m_folders = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return m_lister.listFolders();
+                } catch (MessagingException e) {
+                    throw new CompletionException(e);
+                }
+            }, r -> {
+                final var thread = new Thread(r, "KNIME-Email-Folder-Listing");
+                thread.setDaemon(true);
+                thread.start();
+            });
+        }
+        return m_folders;
+    }
+}
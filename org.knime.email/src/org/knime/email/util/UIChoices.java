@@ -48,9 +48,11 @@
  */
 package org.knime.email.util;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.port.PortObjectSpec;
@@ -92,7 +94,8 @@ public int getInputTableIndex() {
 
     /**
      * A choices provider to select folders from an email session. The email session port is expected to be connected to
-     * the first port (1).
+     * the first port (1). The folder list is cached per email session, see {@link EmailSessionKey#listFolders()}:
+     * folders created since are listed once the cached list expires or the connector node is re-executed.
      */
     public static final class FolderProvider implements StringChoicesProvider {
 
@@ -100,6 +103,9 @@ public static final class FolderProvider implements StringChoicesProvider {
 
         private static final String MISSING_SESSION_MSG = "Rexecute the connector node to restore the email session.";
 
+        /** Time the dialog waits for the folder list; the listing continues (and is cached) when exceeded. */
+        private static final long LIST_FOLDERS_TIMEOUT_S = 10;
+
         @Override
         public void init(final StateProviderInitializer initializer) {
             initializer.computeAfterOpenDialog();
@@ -114,11 +120,16 @@ public List<String> choices(final NodeParametersInput context) {
                 });
                 final EmailSessionKey sessionKey =
                     in.getEmailSessionKey().orElseThrow(() -> new IllegalStateException(MISSING_SESSION_MSG));
-                try (final var mailSession = sessionKey.connectIncoming()) {
-                    final String[] folders = mailSession.listFolders();
-                    Arrays.sort(folders);
-                    return Arrays.asList(folders);
-                }
+                return sessionKey.listFolders().get(LIST_FOLDERS_TIMEOUT_S, TimeUnit.SECONDS);
+            } catch (final TimeoutException e) { // NOSONAR listing continues in the background
+                throw new WidgetHandlerException(
+                    "Retrieving the email folders takes longer than expected, reopen the dialog to show them.");
+            } catch (final InterruptedException e) { // NOSONAR
+                Thread.currentThread().interrupt();
+                throw new WidgetHandlerException("Retrieving the email folders was interrupted.");
+            } catch (final ExecutionException e) {
+                LOGGER.debug("Error fetching email folders", e.getCause());
+                throw new WidgetHandlerException("Unable to retrieve email folders: " + e.getCause().getMessage());
             } catch (final Exception e) { // NOSONAR catch all exceptions here
                 LOGGER.debug("Error fetching email folders", e);
                 throw new WidgetHandlerException("Unable to retrieve email folders: " + e.getMessage());